@@ -0,0 +1,162 @@
+package com.jaouan.viewsfrom.benchmark;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic view tree, with a fixed fan-out at each level and ids, tags and visibilities spread over its views.
+ */
+final class SyntheticViewTree {
+
+    /**
+     * Context shared by all synthetic views.
+     */
+    private static final Context CONTEXT = new Context();
+
+    /**
+     * Every view whose index is a multiple of it is invisible.
+     */
+    private static final int INVISIBLE_VIEWS_PERIOD = 7;
+
+    /**
+     * Every view whose index is a multiple of it is gone.
+     */
+    private static final int GONE_VIEWS_PERIOD = 13;
+
+    /**
+     * Root view.
+     */
+    private final ViewGroup rootView;
+
+    /**
+     * All views under root view, in pre-order.
+     */
+    private final List<View> views = new ArrayList<>();
+
+    /**
+     * Distinct ids count.
+     */
+    private final int distinctIdsCount;
+
+    /**
+     * Distinct tags count.
+     */
+    private final int distinctTagsCount;
+
+    /**
+     * SyntheticViewTree's constructor.
+     *
+     * @param depth             Group views levels under root view.
+     * @param fanOut            Childs count of each group view.
+     * @param distinctIdsCount  Distinct ids count, spread round-robin over views.
+     * @param distinctTagsCount Distinct tags count, spread round-robin over views.
+     */
+    SyntheticViewTree(final int depth, final int fanOut, final int distinctIdsCount, final int distinctTagsCount) {
+        this.distinctIdsCount = distinctIdsCount;
+        this.distinctTagsCount = distinctTagsCount;
+        rootView = new FrameLayout(CONTEXT);
+        addChilds(rootView, depth, fanOut);
+    }
+
+    /**
+     * Gets root view.
+     *
+     * @return Root view.
+     */
+    ViewGroup getRootView() {
+        return rootView;
+    }
+
+    /**
+     * Gets all views under root view.
+     *
+     * @return Views, in pre-order.
+     */
+    List<View> getViews() {
+        return views;
+    }
+
+    /**
+     * Gets a view id.
+     *
+     * @param idIndex Id index, lower than distinct ids count.
+     * @return View id.
+     */
+    static int getViewId(final int idIndex) {
+        return idIndex + 1;
+    }
+
+    /**
+     * Gets a view tag.
+     *
+     * @param tagIndex Tag index, lower than distinct tags count.
+     * @return View tag.
+     */
+    static String getViewTag(final int tagIndex) {
+        return "tag" + tagIndex;
+    }
+
+    /**
+     * Adds childs to a group view, recursively.
+     *
+     * @param groupView Group view.
+     * @param depth     Group views levels to add.
+     * @param fanOut    Childs count of each group view.
+     */
+    private void addChilds(final ViewGroup groupView, final int depth, final int fanOut) {
+        for (int childIndex = 0; childIndex < fanOut; childIndex++) {
+            final View childView = createView(depth > 1, childIndex);
+            groupView.addView(childView);
+            if (depth > 1) {
+                addChilds((ViewGroup) childView, depth - 1, fanOut);
+            }
+        }
+    }
+
+    /**
+     * Creates a view, and gives it the next id, tag and visibility.
+     *
+     * @param isGroupView TRUE to create a group view.
+     * @param childIndex  Index of view in its parent.
+     * @return Created view.
+     */
+    private View createView(final boolean isGroupView, final int childIndex) {
+        final View view;
+        if (isGroupView) {
+            view = childIndex % 2 == 0 ? new FrameLayout(CONTEXT) : new LinearLayout(CONTEXT);
+        } else {
+            switch (childIndex % 3) {
+                case 0:
+                    view = new TextView(CONTEXT);
+                    break;
+                case 1:
+                    view = new Button(CONTEXT);
+                    break;
+                default:
+                    view = new EditText(CONTEXT);
+                    break;
+            }
+        }
+
+        final int viewIndex = views.size() + 1;
+        view.setId(getViewId(viewIndex % distinctIdsCount));
+        view.setTag(getViewTag(viewIndex % distinctTagsCount));
+        if (viewIndex % GONE_VIEWS_PERIOD == 0) {
+            view.setVisibility(View.GONE);
+        } else if (viewIndex % INVISIBLE_VIEWS_PERIOD == 0) {
+            view.setVisibility(View.INVISIBLE);
+        }
+        views.add(view);
+        return view;
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.jaouan.viewsfrom.benchmark;
+
+import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.jaouan.viewsfrom.filters.AggregatedViewFilters;
+import com.jaouan.viewsfrom.filters.AssignableTypeViewFilter;
+import com.jaouan.viewsfrom.filters.BranchExcluderViewFilter;
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.ComplementedViewFilter;
+import com.jaouan.viewsfrom.filters.ExcluderViewFilter;
+import com.jaouan.viewsfrom.filters.IdViewFilter;
+import com.jaouan.viewsfrom.filters.ShownViewFilter;
+import com.jaouan.viewsfrom.filters.TagRegexViewFilter;
+import com.jaouan.viewsfrom.filters.TagViewFilter;
+import com.jaouan.viewsfrom.filters.TypeViewFilter;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+import com.jaouan.viewsfrom.filters.VisibilityViewFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * View filters benchmark. Each operation filters all views of a synthetic view tree, without traversing it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ViewFiltersBenchmark {
+
+    /**
+     * All view types of synthetic view trees.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Class<? extends View>[] VIEW_TYPES = new Class[]{TextView.class, Button.class, EditText.class, FrameLayout.class, LinearLayout.class};
+
+    /**
+     * Group views levels under root view.
+     */
+    @Param({"4"})
+    public int depth;
+
+    /**
+     * Childs count of each group view.
+     */
+    @Param({"8"})
+    public int fanOut;
+
+    /**
+     * Distinct ids and tags count.
+     */
+    @Param({"64"})
+    public int distinctValuesCount;
+
+    /**
+     * Values count of each filter. Filters may switch to hash lookups with many values.
+     */
+    @Param({"1", "16"})
+    public int filterValuesCount;
+
+    /**
+     * Views to filter.
+     */
+    private View[] views;
+
+    private ViewFilter idViewFilter;
+    private ViewFilter tagViewFilter;
+    private ViewFilter tagRegexViewFilter;
+    private ViewFilter tagLiteralRegexViewFilter;
+    private ViewFilter typeViewFilter;
+    private ViewFilter assignableTypeViewFilter;
+    private ViewFilter visibilityViewFilter;
+    private ViewFilter excluderViewFilter;
+    private BranchViewFilter shownViewFilter;
+    private BranchViewFilter branchExcluderViewFilter;
+    private ViewFilter complementedViewFilter;
+    private ViewFilter aggregatedViewFilters;
+
+    /**
+     * Sets up views and filters.
+     */
+    @Setup
+    public void setUp() {
+        final SyntheticViewTree syntheticViewTree = new SyntheticViewTree(depth, fanOut, distinctValuesCount, distinctValuesCount);
+        views = syntheticViewTree.getViews().toArray(new View[0]);
+
+        final int[] viewIds = new int[filterValuesCount];
+        final String[] viewTags = new String[filterValuesCount];
+        final String[] viewTagRegexes = new String[filterValuesCount];
+        final View[] excludedViews = new View[filterValuesCount];
+        for (int valueIndex = 0; valueIndex < filterValuesCount; valueIndex++) {
+            viewIds[valueIndex] = SyntheticViewTree.getViewId(valueIndex);
+            viewTags[valueIndex] = SyntheticViewTree.getViewTag(valueIndex);
+            viewTagRegexes[valueIndex] = SyntheticViewTree.getViewTag(valueIndex) + "[0-9]?";
+            excludedViews[valueIndex] = views[valueIndex * views.length / filterValuesCount];
+        }
+
+        idViewFilter = new IdViewFilter(viewIds);
+        tagViewFilter = new TagViewFilter(viewTags);
+        tagRegexViewFilter = new TagRegexViewFilter(viewTagRegexes);
+        tagLiteralRegexViewFilter = new TagRegexViewFilter(viewTags);
+        typeViewFilter = new TypeViewFilter(Arrays.copyOf(VIEW_TYPES, Math.min(filterValuesCount, VIEW_TYPES.length)));
+        assignableTypeViewFilter = new AssignableTypeViewFilter(Arrays.copyOf(VIEW_TYPES, Math.min(filterValuesCount, VIEW_TYPES.length)));
+        visibilityViewFilter = new VisibilityViewFilter(new int[]{View.VISIBLE});
+        excluderViewFilter = new ExcluderViewFilter(excludedViews);
+        shownViewFilter = new ShownViewFilter();
+        branchExcluderViewFilter = new BranchExcluderViewFilter(excludedViews);
+        complementedViewFilter = new ComplementedViewFilter(new IdViewFilter(viewIds));
+
+        final List<ViewFilter> viewFilters = new ArrayList<>();
+        viewFilters.add(visibilityViewFilter);
+        viewFilters.add(typeViewFilter);
+        viewFilters.add(tagViewFilter);
+        aggregatedViewFilters = new AggregatedViewFilters(viewFilters);
+    }
+
+    @Benchmark
+    public int idViewFilter() {
+        return filterAll(idViewFilter);
+    }
+
+    @Benchmark
+    public int tagViewFilter() {
+        return filterAll(tagViewFilter);
+    }
+
+    @Benchmark
+    public int tagRegexViewFilter() {
+        return filterAll(tagRegexViewFilter);
+    }
+
+    @Benchmark
+    public int tagLiteralRegexViewFilter() {
+        return filterAll(tagLiteralRegexViewFilter);
+    }
+
+    @Benchmark
+    public int typeViewFilter() {
+        return filterAll(typeViewFilter);
+    }
+
+    @Benchmark
+    public int assignableTypeViewFilter() {
+        return filterAll(assignableTypeViewFilter);
+    }
+
+    @Benchmark
+    public int visibilityViewFilter() {
+        return filterAll(visibilityViewFilter);
+    }
+
+    @Benchmark
+    public int excluderViewFilter() {
+        return filterAll(excluderViewFilter);
+    }
+
+    @Benchmark
+    public int shownViewFilter() {
+        return filterAllBranches(shownViewFilter);
+    }
+
+    @Benchmark
+    public int branchExcluderViewFilter() {
+        return filterAllBranches(branchExcluderViewFilter);
+    }
+
+    @Benchmark
+    public int complementedViewFilter() {
+        return filterAll(complementedViewFilter);
+    }
+
+    @Benchmark
+    public int aggregatedViewFilters() {
+        return filterAll(aggregatedViewFilters);
+    }
+
+    /**
+     * Filters all views.
+     *
+     * @param viewFilter View filter.
+     * @return Accepted views count.
+     */
+    private int filterAll(final ViewFilter viewFilter) {
+        int acceptedViewsCount = 0;
+        for (final View view : views) {
+            if (viewFilter.filter(view)) {
+                acceptedViewsCount++;
+            }
+        }
+        return acceptedViewsCount;
+    }
+
+    /**
+     * Filters all views and their branches, as a traversal does.
+     *
+     * @param branchViewFilter Branch view filter.
+     * @return Accepted views count.
+     */
+    private int filterAllBranches(final BranchViewFilter branchViewFilter) {
+        int acceptedViewsCount = 0;
+        for (final View view : views) {
+            if (branchViewFilter.filterBranch(view) && branchViewFilter.filter(view)) {
+                acceptedViewsCount++;
+            }
+        }
+        return acceptedViewsCount;
+    }
+
+}
@@ -0,0 +1,255 @@
+package com.jaouan.viewsfrom.benchmark;
+
+import android.view.View;
+import android.widget.Button;
+
+import com.jaouan.viewsfrom.ViewIteration;
+import com.jaouan.viewsfrom.ViewVisitor;
+import com.jaouan.viewsfrom.Views;
+import com.jaouan.viewsfrom.ViewsFinder;
+import com.jaouan.viewsfrom.ViewsIndex;
+import com.jaouan.viewsfrom.ViewsSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Views finder end points benchmark, on synthetic view trees.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ViewsFinderBenchmark {
+
+    /**
+     * Group views levels under root view.
+     */
+    @Param({"3", "5"})
+    public int depth;
+
+    /**
+     * Childs count of each group view.
+     */
+    @Param({"4", "8"})
+    public int fanOut;
+
+    /**
+     * Distinct ids count.
+     */
+    @Param({"16"})
+    public int distinctIdsCount;
+
+    /**
+     * Distinct tags count.
+     */
+    @Param({"16"})
+    public int distinctTagsCount;
+
+    /**
+     * Synthetic view tree.
+     */
+    private SyntheticViewTree syntheticViewTree;
+
+    /**
+     * Reused views finder.
+     */
+    private ViewsFinder viewsFinder;
+
+    /**
+     * Reused views finder, on an indexed view tree.
+     */
+    private ViewsFinder indexedViewsFinder;
+
+    /**
+     * Reused cached views finder.
+     */
+    private ViewsFinder cachedViewsFinder;
+
+    /**
+     * Snapshot of synthetic view tree.
+     */
+    private ViewsSnapshot viewsSnapshot;
+
+    /**
+     * Fork-join pool evaluating filters in parallel.
+     */
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * Reused views list.
+     */
+    private final List<View> views = new ArrayList<>();
+
+    /**
+     * Sets up view trees and views finders.
+     */
+    @Setup
+    public void setUp() {
+        syntheticViewTree = new SyntheticViewTree(depth, fanOut, distinctIdsCount, distinctTagsCount);
+        viewsFinder = Views.from(syntheticViewTree.getRootView()).withType(Button.class).withVisibility(View.VISIBLE);
+        viewsSnapshot = viewsFinder.snapshot();
+        forkJoinPool = new ForkJoinPool();
+        cachedViewsFinder = Views.from(syntheticViewTree.getRootView()).withType(Button.class).withVisibility(View.VISIBLE).cached();
+
+        final SyntheticViewTree indexedSyntheticViewTree = new SyntheticViewTree(depth, fanOut, distinctIdsCount, distinctTagsCount);
+        ViewsIndex.attach(indexedSyntheticViewTree.getRootView());
+        indexedViewsFinder = Views.from(indexedSyntheticViewTree.getRootView()).withTag(SyntheticViewTree.getViewTag(1)).withVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Finds views with a new views finder, so it is compiled each time.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> findWithNewViewsFinder() {
+        return Views.from(syntheticViewTree.getRootView()).withType(Button.class).withVisibility(View.VISIBLE).find();
+    }
+
+    /**
+     * Finds views with a reused views finder.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> find() {
+        return viewsFinder.find();
+    }
+
+    /**
+     * Finds views in a reused list.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> findInList() {
+        views.clear();
+        return viewsFinder.find(views);
+    }
+
+    /**
+     * Captures a snapshot : the part of an off main thread find which is run on main thread.
+     *
+     * @return Views snapshot.
+     */
+    @Benchmark
+    public ViewsSnapshot snapshot() {
+        return viewsFinder.snapshot();
+    }
+
+    /**
+     * Finds views in a snapshot : the part of an off main thread find which is run by executor.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> findInSnapshot() {
+        views.clear();
+        return viewsFinder.compile().find(viewsSnapshot, views);
+    }
+
+    /**
+     * Finds views in a snapshot, evaluating filters in parallel.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> findInParallel() {
+        return viewsFinder.compile().findInParallel(viewsSnapshot, forkJoinPool);
+    }
+
+    /**
+     * Shuts fork-join pool down.
+     */
+    @TearDown
+    public void tearDown() {
+        forkJoinPool.shutdown();
+    }
+
+    /**
+     * Finds views with an index.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> findWithIndex() {
+        return indexedViewsFinder.find();
+    }
+
+    /**
+     * Finds views from cache.
+     *
+     * @return Found views.
+     */
+    @Benchmark
+    public List<View> findCached() {
+        return cachedViewsFinder.find();
+    }
+
+    /**
+     * Iterates views.
+     *
+     * @param blackhole Blackhole.
+     */
+    @Benchmark
+    public void forEach(final Blackhole blackhole) {
+        viewsFinder.forEach(new ViewIteration() {
+            @Override
+            public void onView(final View view, final int viewIndex, final int viewsCount) {
+                blackhole.consume(view);
+            }
+        });
+    }
+
+    /**
+     * Visits views.
+     *
+     * @param blackhole Blackhole.
+     */
+    @Benchmark
+    public void visit(final Blackhole blackhole) {
+        viewsFinder.visit(new ViewVisitor() {
+            @Override
+            public boolean onView(final View view, final int viewIndex) {
+                blackhole.consume(view);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Iterates views lazily.
+     *
+     * @param blackhole Blackhole.
+     */
+    @Benchmark
+    public void iterator(final Blackhole blackhole) {
+        for (final View view : viewsFinder) {
+            blackhole.consume(view);
+        }
+    }
+
+    /**
+     * Finds first view.
+     *
+     * @return First view.
+     */
+    @Benchmark
+    public View findFirst() {
+        return viewsFinder.findFirst();
+    }
+
+}
@@ -0,0 +1,20 @@
+package android.animation;
+
+/**
+ * Animator stand-in.
+ */
+public abstract class Animator {
+
+    public interface AnimatorListener {
+
+        void onAnimationStart(Animator animator);
+
+        void onAnimationEnd(Animator animator);
+
+        void onAnimationCancel(Animator animator);
+
+        void onAnimationRepeat(Animator animator);
+
+    }
+
+}
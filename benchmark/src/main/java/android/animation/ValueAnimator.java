@@ -0,0 +1,12 @@
+package android.animation;
+
+/**
+ * Value animator stand-in.
+ */
+public class ValueAnimator extends Animator {
+
+    public static long getFrameDelay() {
+        return 10;
+    }
+
+}
@@ -0,0 +1,10 @@
+package android.annotation;
+
+/**
+ * TargetApi annotation stand-in.
+ */
+public @interface TargetApi {
+
+    int value();
+
+}
@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * Context stand-in, so views can be built outside of an Android runtime.
+ */
+public class Context {
+}
@@ -0,0 +1,7 @@
+package android.graphics;
+
+/**
+ * Paint stand-in.
+ */
+public class Paint {
+}
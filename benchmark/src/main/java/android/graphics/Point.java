@@ -0,0 +1,11 @@
+package android.graphics;
+
+/**
+ * Point stand-in.
+ */
+public class Point {
+
+    public int x;
+    public int y;
+
+}
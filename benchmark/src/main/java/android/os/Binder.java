@@ -0,0 +1,7 @@
+package android.os;
+
+/**
+ * Binder stand-in. Only used as window token.
+ */
+public class Binder implements IBinder {
+}
@@ -0,0 +1,26 @@
+package android.os;
+
+/**
+ * Build stand-in, describing the latest API level the library is compiled against.
+ */
+public class Build {
+
+    public static class VERSION {
+
+        public static final int SDK_INT = VERSION_CODES.M;
+
+    }
+
+    public static class VERSION_CODES {
+
+        public static final int ICE_CREAM_SANDWICH = 14;
+        public static final int JELLY_BEAN = 16;
+        public static final int JELLY_BEAN_MR2 = 18;
+        public static final int KITKAT = 19;
+        public static final int LOLLIPOP = 21;
+        public static final int M = 23;
+        public static final int O = 26;
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handler stand-in. Posted runnables are kept until they are removed, since there is no message loop.
+ */
+public class Handler {
+
+    private final List<Runnable> postedRunnables = new ArrayList<>();
+
+    public Handler() {
+    }
+
+    public Handler(final Looper looper) {
+    }
+
+    public boolean post(final Runnable runnable) {
+        return postedRunnables.add(runnable);
+    }
+
+    public boolean postDelayed(final Runnable runnable, final long delayMillis) {
+        return postedRunnables.add(runnable);
+    }
+
+    public void removeCallbacks(final Runnable runnable) {
+        while (postedRunnables.remove(runnable)) {
+            // Removes every posted occurrence.
+        }
+    }
+
+}
@@ -0,0 +1,7 @@
+package android.os;
+
+/**
+ * IBinder stand-in. Only used as window token.
+ */
+public interface IBinder {
+}
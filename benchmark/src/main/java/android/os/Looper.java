@@ -0,0 +1,18 @@
+package android.os;
+
+/**
+ * Looper stand-in.
+ */
+public final class Looper {
+
+    private static final Looper MAIN_LOOPER = new Looper();
+
+    public static Looper getMainLooper() {
+        return MAIN_LOOPER;
+    }
+
+    public static Looper myLooper() {
+        return MAIN_LOOPER;
+    }
+
+}
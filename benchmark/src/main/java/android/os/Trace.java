@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * Trace stand-in. Sections are ignored.
+ */
+public final class Trace {
+
+    private Trace() {
+    }
+
+    public static void beginSection(final String sectionName) {
+    }
+
+    public static void endSection() {
+    }
+
+}
@@ -0,0 +1,7 @@
+package android.support.annotation;
+
+/**
+ * AnimRes annotation stand-in.
+ */
+public @interface AnimRes {
+}
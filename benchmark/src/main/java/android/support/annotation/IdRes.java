@@ -0,0 +1,7 @@
+package android.support.annotation;
+
+/**
+ * IdRes annotation stand-in.
+ */
+public @interface IdRes {
+}
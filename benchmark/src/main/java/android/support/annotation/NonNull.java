@@ -0,0 +1,7 @@
+package android.support.annotation;
+
+/**
+ * NonNull annotation stand-in.
+ */
+public @interface NonNull {
+}
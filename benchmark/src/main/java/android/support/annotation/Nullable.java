@@ -0,0 +1,7 @@
+package android.support.annotation;
+
+/**
+ * Nullable annotation stand-in.
+ */
+public @interface Nullable {
+}
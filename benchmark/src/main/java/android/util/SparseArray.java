@@ -0,0 +1,37 @@
+package android.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sparse array stand-in.
+ */
+public class SparseArray<E> {
+
+    private final Map<Integer, E> values = new HashMap<>();
+
+    public E get(final int key) {
+        return values.get(key);
+    }
+
+    public void put(final int key, final E value) {
+        values.put(key, value);
+    }
+
+    public void remove(final int key) {
+        values.remove(key);
+    }
+
+    public void delete(final int key) {
+        values.remove(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public void clear() {
+        values.clear();
+    }
+
+}
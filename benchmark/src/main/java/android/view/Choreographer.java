@@ -0,0 +1,35 @@
+package android.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Choreographer stand-in. Posted frame callbacks are kept until they are removed, since there is no display.
+ */
+public final class Choreographer {
+
+    public interface FrameCallback {
+
+        void doFrame(long frameTimeNanos);
+
+    }
+
+    private static final Choreographer INSTANCE = new Choreographer();
+
+    private final List<FrameCallback> frameCallbacks = new ArrayList<>();
+
+    public static Choreographer getInstance() {
+        return INSTANCE;
+    }
+
+    public void postFrameCallback(final FrameCallback frameCallback) {
+        frameCallbacks.add(frameCallback);
+    }
+
+    public void removeFrameCallback(final FrameCallback frameCallback) {
+        while (frameCallbacks.remove(frameCallback)) {
+            // Removes every posted occurrence.
+        }
+    }
+
+}
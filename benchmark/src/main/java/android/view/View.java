@@ -0,0 +1,235 @@
+package android.view;
+
+import android.content.Context;
+import android.graphics.Paint;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.os.IBinder;
+import android.view.animation.Animation;
+
+import java.util.Arrays;
+
+/**
+ * View stand-in, behaving like the framework's one for everything the library reads or writes.
+ */
+public class View {
+
+    public static final int VISIBLE = 0;
+    public static final int INVISIBLE = 4;
+    public static final int GONE = 8;
+    public static final int NO_ID = -1;
+    public static final int LAYER_TYPE_NONE = 0;
+    public static final int LAYER_TYPE_SOFTWARE = 1;
+    public static final int LAYER_TYPE_HARDWARE = 2;
+
+    private final Context context;
+    private int id = NO_ID;
+    private Object tag;
+    private int[] keyedTagKeys = new int[0];
+    private Object[] keyedTagValues = new Object[0];
+    private int visibility = VISIBLE;
+    private boolean enabled = true;
+    private Animation animation;
+    private ViewTreeObserver viewTreeObserver;
+    private ViewPropertyAnimator viewPropertyAnimator;
+    private int layerType = LAYER_TYPE_NONE;
+    private float alpha = 1;
+    private float translationX;
+    private float translationY;
+    private float scaleX = 1;
+    private float scaleY = 1;
+    private float rotation;
+    ViewParent parent;
+
+    public View(final Context context) {
+        this.context = context;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(final int id) {
+        this.id = id;
+    }
+
+    public Object getTag() {
+        return tag;
+    }
+
+    public void setTag(final Object tag) {
+        this.tag = tag;
+    }
+
+    public Object getTag(final int key) {
+        for (int keyIndex = 0; keyIndex < keyedTagKeys.length; keyIndex++) {
+            if (keyedTagKeys[keyIndex] == key) {
+                return keyedTagValues[keyIndex];
+            }
+        }
+        return null;
+    }
+
+    public void setTag(final int key, final Object tag) {
+        // Like the framework, only application resource ids are allowed as keys.
+        if ((key >>> 24) < 2) {
+            throw new IllegalArgumentException("The key must be an application-specific resource id.");
+        }
+        for (int keyIndex = 0; keyIndex < keyedTagKeys.length; keyIndex++) {
+            if (keyedTagKeys[keyIndex] == key) {
+                keyedTagValues[keyIndex] = tag;
+                return;
+            }
+        }
+        keyedTagKeys = Arrays.copyOf(keyedTagKeys, keyedTagKeys.length + 1);
+        keyedTagValues = Arrays.copyOf(keyedTagValues, keyedTagValues.length + 1);
+        keyedTagKeys[keyedTagKeys.length - 1] = key;
+        keyedTagValues[keyedTagValues.length - 1] = tag;
+    }
+
+    public int getVisibility() {
+        return visibility;
+    }
+
+    public void setVisibility(final int visibility) {
+        this.visibility = visibility;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isShown() {
+        View view = this;
+        while (view.visibility == VISIBLE) {
+            if (!(view.parent instanceof View)) {
+                return true;
+            }
+            view = (View) view.parent;
+        }
+        return false;
+    }
+
+    public final boolean getGlobalVisibleRect(final Rect rect) {
+        return getGlobalVisibleRect(rect, null);
+    }
+
+    /**
+     * Views have no size, so a view is considered visible on screen as long as it is shown.
+     */
+    public boolean getGlobalVisibleRect(final Rect rect, final Point globalOffset) {
+        rect.set(0, 0, 0, 0);
+        return isShown();
+    }
+
+    /**
+     * Views are never attached to a window, so their legacy animations never run.
+     */
+    public IBinder getWindowToken() {
+        return null;
+    }
+
+    public final ViewParent getParent() {
+        return parent;
+    }
+
+    public ViewTreeObserver getViewTreeObserver() {
+        if (parent instanceof View) {
+            return ((View) parent).getViewTreeObserver();
+        }
+        if (viewTreeObserver == null) {
+            viewTreeObserver = new ViewTreeObserver();
+        }
+        return viewTreeObserver;
+    }
+
+    public void startAnimation(final Animation animation) {
+        this.animation = animation;
+    }
+
+    public Animation getAnimation() {
+        return animation;
+    }
+
+    public void clearAnimation() {
+        animation = null;
+    }
+
+    public ViewPropertyAnimator animate() {
+        if (viewPropertyAnimator == null) {
+            viewPropertyAnimator = new ViewPropertyAnimator(this);
+        }
+        return viewPropertyAnimator;
+    }
+
+    public int getLayerType() {
+        return layerType;
+    }
+
+    public void setLayerType(final int layerType, final Paint paint) {
+        this.layerType = layerType;
+    }
+
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public void setAlpha(final float alpha) {
+        this.alpha = alpha;
+    }
+
+    public float getTranslationX() {
+        return translationX;
+    }
+
+    public void setTranslationX(final float translationX) {
+        this.translationX = translationX;
+    }
+
+    public float getTranslationY() {
+        return translationY;
+    }
+
+    public void setTranslationY(final float translationY) {
+        this.translationY = translationY;
+    }
+
+    public float getScaleX() {
+        return scaleX;
+    }
+
+    public void setScaleX(final float scaleX) {
+        this.scaleX = scaleX;
+    }
+
+    public float getScaleY() {
+        return scaleY;
+    }
+
+    public void setScaleY(final float scaleY) {
+        this.scaleY = scaleY;
+    }
+
+    public float getRotation() {
+        return rotation;
+    }
+
+    public void setRotation(final float rotation) {
+        this.rotation = rotation;
+    }
+
+    public void requestLayout() {
+    }
+
+    public void invalidate() {
+    }
+
+}
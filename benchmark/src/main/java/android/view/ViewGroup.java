@@ -0,0 +1,82 @@
+package android.view;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View group stand-in.
+ */
+public abstract class ViewGroup extends View implements ViewParent {
+
+    public interface OnHierarchyChangeListener {
+
+        void onChildViewAdded(View parent, View child);
+
+        void onChildViewRemoved(View parent, View child);
+
+    }
+
+    private final List<View> childViews = new ArrayList<>();
+    private OnHierarchyChangeListener mOnHierarchyChangeListener;
+
+    public ViewGroup(final Context context) {
+        super(context);
+    }
+
+    public int getChildCount() {
+        return childViews.size();
+    }
+
+    public View getChildAt(final int index) {
+        return index < 0 || index >= childViews.size() ? null : childViews.get(index);
+    }
+
+    public int indexOfChild(final View childView) {
+        return childViews.indexOf(childView);
+    }
+
+    public void addView(final View childView) {
+        addView(childView, -1);
+    }
+
+    public void addView(final View childView, final int index) {
+        if (childView.parent != null) {
+            throw new IllegalStateException("The specified child already has a parent.");
+        }
+        if (index < 0) {
+            childViews.add(childView);
+        } else {
+            childViews.add(index, childView);
+        }
+        childView.parent = this;
+        if (mOnHierarchyChangeListener != null) {
+            mOnHierarchyChangeListener.onChildViewAdded(this, childView);
+        }
+    }
+
+    public void removeView(final View childView) {
+        if (childViews.remove(childView)) {
+            childView.parent = null;
+            if (mOnHierarchyChangeListener != null) {
+                mOnHierarchyChangeListener.onChildViewRemoved(this, childView);
+            }
+        }
+    }
+
+    public void removeViewAt(final int index) {
+        removeView(childViews.get(index));
+    }
+
+    public void removeAllViews() {
+        while (!childViews.isEmpty()) {
+            removeViewAt(childViews.size() - 1);
+        }
+    }
+
+    public void setOnHierarchyChangeListener(final OnHierarchyChangeListener onHierarchyChangeListener) {
+        this.mOnHierarchyChangeListener = onHierarchyChangeListener;
+    }
+
+}
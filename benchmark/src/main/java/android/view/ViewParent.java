@@ -0,0 +1,15 @@
+package android.view;
+
+/**
+ * View parent stand-in.
+ */
+public interface ViewParent {
+
+    /**
+     * Gets parent.
+     *
+     * @return Parent, or NULL if there is none.
+     */
+    ViewParent getParent();
+
+}
@@ -0,0 +1,112 @@
+package android.view;
+
+import android.animation.Animator;
+
+/**
+ * View property animator stand-in. Animations end as soon as they start, with their end properties applied.
+ */
+public class ViewPropertyAnimator {
+
+    private final View view;
+    private final Animator animator = new Animator() {
+    };
+    private Animator.AnimatorListener animatorListener;
+    private long duration;
+    private long startDelay;
+    private float alpha = Float.NaN;
+    private float translationX = Float.NaN;
+    private float translationY = Float.NaN;
+    private float scaleX = Float.NaN;
+    private float scaleY = Float.NaN;
+    private float rotation = Float.NaN;
+
+    ViewPropertyAnimator(final View view) {
+        this.view = view;
+    }
+
+    public ViewPropertyAnimator setDuration(final long duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public ViewPropertyAnimator setStartDelay(final long startDelay) {
+        this.startDelay = startDelay;
+        return this;
+    }
+
+    public long getStartDelay() {
+        return startDelay;
+    }
+
+    public ViewPropertyAnimator setListener(final Animator.AnimatorListener animatorListener) {
+        this.animatorListener = animatorListener;
+        return this;
+    }
+
+    public ViewPropertyAnimator alpha(final float alpha) {
+        this.alpha = alpha;
+        return this;
+    }
+
+    public ViewPropertyAnimator translationX(final float translationX) {
+        this.translationX = translationX;
+        return this;
+    }
+
+    public ViewPropertyAnimator translationY(final float translationY) {
+        this.translationY = translationY;
+        return this;
+    }
+
+    public ViewPropertyAnimator scaleX(final float scaleX) {
+        this.scaleX = scaleX;
+        return this;
+    }
+
+    public ViewPropertyAnimator scaleY(final float scaleY) {
+        this.scaleY = scaleY;
+        return this;
+    }
+
+    public ViewPropertyAnimator rotation(final float rotation) {
+        this.rotation = rotation;
+        return this;
+    }
+
+    public void start() {
+        if (animatorListener != null) {
+            animatorListener.onAnimationStart(animator);
+        }
+        if (!Float.isNaN(alpha)) {
+            view.setAlpha(alpha);
+        }
+        if (!Float.isNaN(translationX)) {
+            view.setTranslationX(translationX);
+        }
+        if (!Float.isNaN(translationY)) {
+            view.setTranslationY(translationY);
+        }
+        if (!Float.isNaN(scaleX)) {
+            view.setScaleX(scaleX);
+        }
+        if (!Float.isNaN(scaleY)) {
+            view.setScaleY(scaleY);
+        }
+        if (!Float.isNaN(rotation)) {
+            view.setRotation(rotation);
+        }
+        alpha = translationX = translationY = scaleX = scaleY = rotation = Float.NaN;
+        if (animatorListener != null) {
+            animatorListener.onAnimationEnd(animator);
+        }
+    }
+
+    public void cancel() {
+        alpha = translationX = translationY = scaleX = scaleY = rotation = Float.NaN;
+    }
+
+}
@@ -0,0 +1,42 @@
+package android.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View tree observer stand-in.
+ */
+public final class ViewTreeObserver {
+
+    public interface OnGlobalLayoutListener {
+
+        void onGlobalLayout();
+
+    }
+
+    private final List<OnGlobalLayoutListener> onGlobalLayoutListeners = new ArrayList<>();
+
+    public boolean isAlive() {
+        return true;
+    }
+
+    public void addOnGlobalLayoutListener(final OnGlobalLayoutListener onGlobalLayoutListener) {
+        onGlobalLayoutListeners.add(onGlobalLayoutListener);
+    }
+
+    @Deprecated
+    public void removeGlobalOnLayoutListener(final OnGlobalLayoutListener onGlobalLayoutListener) {
+        removeOnGlobalLayoutListener(onGlobalLayoutListener);
+    }
+
+    public void removeOnGlobalLayoutListener(final OnGlobalLayoutListener onGlobalLayoutListener) {
+        onGlobalLayoutListeners.remove(onGlobalLayoutListener);
+    }
+
+    public void dispatchOnGlobalLayout() {
+        for (final OnGlobalLayoutListener onGlobalLayoutListener : new ArrayList<>(onGlobalLayoutListeners)) {
+            onGlobalLayoutListener.onGlobalLayout();
+        }
+    }
+
+}
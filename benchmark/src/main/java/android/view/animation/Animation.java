@@ -0,0 +1,69 @@
+package android.view.animation;
+
+/**
+ * Animation stand-in. It never runs, benchmarks only measure how animations are dispatched.
+ */
+public abstract class Animation implements Cloneable {
+
+    public interface AnimationListener {
+
+        void onAnimationStart(Animation animation);
+
+        void onAnimationEnd(Animation animation);
+
+        void onAnimationRepeat(Animation animation);
+
+    }
+
+    private long startOffset;
+    private long duration;
+    private boolean fillAfter;
+    private AnimationListener animationListener;
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(final long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(final long duration) {
+        this.duration = duration;
+    }
+
+    public long computeDurationHint() {
+        return startOffset + duration;
+    }
+
+    public boolean getFillAfter() {
+        return fillAfter;
+    }
+
+    public void setFillAfter(final boolean fillAfter) {
+        this.fillAfter = fillAfter;
+    }
+
+    public void setAnimationListener(final AnimationListener animationListener) {
+        this.animationListener = animationListener;
+    }
+
+    public void reset() {
+    }
+
+    public void cancel() {
+    }
+
+    public boolean hasStarted() {
+        return false;
+    }
+
+    public boolean hasEnded() {
+        return false;
+    }
+
+}
@@ -0,0 +1,15 @@
+package android.view.animation;
+
+import android.content.Context;
+
+/**
+ * Animation utils stand-in.
+ */
+public class AnimationUtils {
+
+    public static Animation loadAnimation(final Context context, final int animationResource) {
+        return new Animation() {
+        };
+    }
+
+}
@@ -0,0 +1,14 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * Button stand-in.
+ */
+public class Button extends TextView {
+
+    public Button(final Context context) {
+        super(context);
+    }
+
+}
@@ -0,0 +1,14 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * EditText stand-in.
+ */
+public class EditText extends TextView {
+
+    public EditText(final Context context) {
+        super(context);
+    }
+
+}
@@ -0,0 +1,15 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/**
+ * FrameLayout stand-in.
+ */
+public class FrameLayout extends ViewGroup {
+
+    public FrameLayout(final Context context) {
+        super(context);
+    }
+
+}
@@ -0,0 +1,15 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/**
+ * LinearLayout stand-in.
+ */
+public class LinearLayout extends ViewGroup {
+
+    public LinearLayout(final Context context) {
+        super(context);
+    }
+
+}
@@ -0,0 +1,15 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+
+/**
+ * TextView stand-in.
+ */
+public class TextView extends View {
+
+    public TextView(final Context context) {
+        super(context);
+    }
+
+}
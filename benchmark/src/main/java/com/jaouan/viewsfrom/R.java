@@ -0,0 +1,18 @@
+package com.jaouan.viewsfrom;
+
+/**
+ * Resources stand-in, mirroring the library's res/values/ids.xml.
+ */
+public final class R {
+
+    public static final class id {
+
+        public static final int viewsfrom_hierarchy_listeners = 0x7f0c0001;
+
+        public static final int viewsfrom_index = 0x7f0c0002;
+
+        public static final int viewsfrom_result_caches = 0x7f0c0003;
+
+    }
+
+}
@@ -1,27 +1,53 @@
 package com.jaouan.viewsfrom;
 
 import android.app.Application;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Debug;
+import android.os.IBinder;
 import android.test.ApplicationTestCase;
 import android.test.suitebuilder.annotation.MediumTest;
 import android.test.suitebuilder.annotation.SmallTest;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.Animation;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import com.jaouan.viewsfrom.filters.BranchExcluderViewFilter;
+import com.jaouan.viewsfrom.filters.ComplementedViewFilter;
+import com.jaouan.viewsfrom.filters.ExcluderViewFilter;
+import com.jaouan.viewsfrom.filters.ShownViewFilter;
+import com.jaouan.viewsfrom.filters.TagRegexViewFilter;
+import com.jaouan.viewsfrom.filters.TagViewFilter;
+import com.jaouan.viewsfrom.filters.TypeViewFilter;
 import com.jaouan.viewsfrom.filters.ViewFilter;
+import com.jaouan.viewsfrom.filters.VisibilityViewFilter;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * <a href="http://d.android.com/tools/testing/testing_android.html">Tests {@link Views}</a>
  */
 public class ViewsTest extends ApplicationTestCase<Application> {
 
+    /**
+     * Window token of drawn views.
+     */
+    private static final IBinder WINDOW_TOKEN = new Binder();
+
     /**
      * All views.
      * Views hierarchy :
@@ -88,6 +114,27 @@ public class ViewsTest extends ApplicationTestCase<Application> {
         assertViews(views, textView2, button1, button2, viewGroup3, button3);
     }
 
+    @MediumTest
+    public void testListAllChildsFromDeepHierarchy() {
+        // Each level contains a group view followed by a text view. Pre-order lists all group views first, then text views from the deepest one.
+        final int depth = 5000;
+        final View[] expectedViews = new View[depth * 2];
+        final ViewGroup deepRootView = new FrameLayout(getContext());
+        ViewGroup parentView = deepRootView;
+        for (int level = 0; level < depth; level++) {
+            final ViewGroup childGroupView = new FrameLayout(getContext());
+            final View childView = new TextView(getContext());
+            parentView.addView(childGroupView);
+            parentView.addView(childView);
+            expectedViews[level] = childGroupView;
+            expectedViews[depth * 2 - 1 - level] = childView;
+            parentView = childGroupView;
+        }
+
+        final List<View> views = Views.from(deepRootView).find();
+        assertViews(views, expectedViews);
+    }
+
     @SmallTest
     public void testListFromViewGroupAndFromAnotherViewGroup() {
         final List<View> views = Views.from(viewGroup1).includingFromViews().andFrom(viewGroup2).find();
@@ -106,6 +153,45 @@ public class ViewsTest extends ApplicationTestCase<Application> {
         assertViews(views, textView1, viewGroup1, textView2, button1, viewGroup2, button2);
     }
 
+    @SmallTest
+    public void testExcludeViewAndChilds() {
+        final List<View> views = Views.from(rootView).excludeViewAndChilds(viewGroup1).find();
+        assertViews(views, textView1, viewGroup2, button2, viewGroup3, button3);
+    }
+
+    @SmallTest
+    public void testOnlyShownViews() {
+        final List<View> filteredViews = new ArrayList<>();
+        final List<View> views = Views.from(rootView)
+                .onlyShownViews()
+                .filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        filteredViews.add(view);
+                        return true;
+                    }
+                })
+                .find();
+
+        assertViews(views, textView1, viewGroup1, textView2, viewGroup2, button2);
+        // Hidden branches are skipped : neither viewGroup3 nor button3 are filtered.
+        assertViews(filteredViews, textView1, viewGroup1, textView2, viewGroup2, button2);
+    }
+
+    @SmallTest
+    public void testBranchFiltersOnlyWhenPruning() {
+        // Filters that never prune are not branch filters.
+        assertNull(ViewsHelper.getBranchViewFilter(new VisibilityViewFilter(new int[]{View.VISIBLE})));
+        assertNull(ViewsHelper.getBranchViewFilter(new ExcluderViewFilter(new View[]{viewGroup1})));
+        assertNotNull(ViewsHelper.getBranchViewFilter(new ShownViewFilter()));
+        assertNotNull(ViewsHelper.getBranchViewFilter(new BranchExcluderViewFilter(new View[]{viewGroup1})));
+
+        // Hidden views are found with their childs.
+        assertViews(Views.from(rootView).withVisibility(View.GONE).find(), viewGroup3);
+        assertViews(Views.from(rootView).withVisibility(View.GONE, View.VISIBLE).onlyShownViews().find(), textView1, viewGroup1, textView2, viewGroup2, button2);
+        assertViews(Views.from(rootView).withVisibility(View.GONE).onlyShownViews().find());
+    }
+
     @SmallTest
     public void testFilter() {
         final List<View> views = Views.from(rootView).filteredWith(new ViewFilter() {
@@ -123,12 +209,48 @@ public class ViewsTest extends ApplicationTestCase<Application> {
         assertViews(views, textView1, textView2);
     }
 
+    @SmallTest
+    public void testWithTypeAssignableTo() {
+        final List<View> views = Views.from(rootView).withTypeAssignableTo(TextView.class).find();
+        assertViews(views, textView1, textView2, button1, button2, button3);
+
+        final List<View> notViews = Views.from(rootView).not().withTypeAssignableTo(TextView.class).find();
+        assertViews(notViews, viewGroup1, viewGroup2, viewGroup3);
+
+        final ViewsFinder viewsFinder = Views.from(rootView).withTypeAssignableTo(Button.class);
+        assertViews(viewsFinder.find(viewsFinder.snapshot()), button1, button2, button3);
+    }
+
     @SmallTest
     public void testWithId() {
         final List<View> views = Views.from(rootView).withId(android.R.id.button1, android.R.id.text1).find();
         assertViews(views, textView1, button1);
     }
 
+    @SmallTest
+    public void testWithManyIds() {
+        final int[] identifiers = new int[32];
+        for (int identifierIndex = 0; identifierIndex < identifiers.length; identifierIndex++) {
+            identifiers[identifierIndex] = 0x7f0b0000 + identifierIndex;
+        }
+        identifiers[5] = android.R.id.button1;
+        identifiers[17] = android.R.id.text1;
+        final List<View> views = Views.from(rootView).withId(identifiers).find();
+        assertViews(views, textView1, button1);
+    }
+
+    @SmallTest
+    public void testExcludeManyViews() {
+        final View[] excludedViews = new View[16];
+        for (int excludedViewIndex = 0; excludedViewIndex < excludedViews.length; excludedViewIndex++) {
+            excludedViews[excludedViewIndex] = new TextView(getContext());
+        }
+        excludedViews[3] = textView1;
+        excludedViews[9] = button2;
+        final List<View> views = Views.from(viewGroup2).includingFromViews().excludeView(excludedViews).find();
+        assertViews(views, viewGroup2, viewGroup3, button3);
+    }
+
     @SmallTest
     public void testWithTag() {
         final List<View> views = Views.from(rootView).withTag("textView_1", "textView_2").find();
@@ -141,6 +263,68 @@ public class ViewsTest extends ApplicationTestCase<Application> {
         assertViews(views, textView1, textView2);
     }
 
+    @SmallTest
+    public void testWithTagRegexes() {
+        // Literals.
+        assertViews(Views.from(rootView).withTagRegex("View_1", "abc").find(), textView1);
+
+        // Combined regexes, with scoped flags.
+        assertViews(Views.from(rootView).withTagRegex("^(?i)TEXTVIEW_1$", "_2$").find(), textView1, textView2);
+        assertViews(Views.from(rootView).withTagRegex("(?i)TEXTVIEW_1", "TEXTVIEW_2").find(), textView1);
+
+        // Back references.
+        textView2.setTag("textView_22");
+        assertViews(Views.from(rootView).withTagRegex("(a)bc", "_([0-9])\\1").find(), textView2);
+
+        // Look-behinds.
+        assertViews(Views.from(rootView).withTagRegex("(?<=text)View_1", "(?<!text)View_22").find(), textView1);
+
+        // Named groups declared twice. Android supports named groups from 8.0.
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            assertViews(Views.from(rootView).withTagRegex("(?<k>View)_1", "(?<k>View)_22").find(), textView1, textView2);
+        }
+    }
+
+    @SmallTest
+    public void testTagRegexCache() {
+        // Repeated tags are found in cache.
+        final TagRegexViewFilter tagRegexViewFilter = new TagRegexViewFilter(new String[]{"textView_[0-9]"}, 2);
+        final ViewsFinder viewsFinder = Views.from(rootView).filteredWith(tagRegexViewFilter);
+        assertViews(viewsFinder.find(), textView1, textView2);
+        assertViews(viewsFinder.find(), textView1, textView2);
+        assertEquals(2, tagRegexViewFilter.getCacheHitsCount());
+        assertEquals(2, tagRegexViewFilter.getCacheMissesCount());
+        assertEquals(0.5f, tagRegexViewFilter.getCacheHitRate());
+
+        // Least recently used tags are evicted.
+        final TagRegexViewFilter smallCacheTagRegexViewFilter = new TagRegexViewFilter(new String[]{"textView_[0-9]"}, 1);
+        final ViewsFinder smallCacheViewsFinder = Views.from(rootView).filteredWith(smallCacheTagRegexViewFilter);
+        assertViews(smallCacheViewsFinder.find(), textView1, textView2);
+        assertViews(smallCacheViewsFinder.find(), textView1, textView2);
+        assertEquals(0, smallCacheTagRegexViewFilter.getCacheHitsCount());
+        assertEquals(4, smallCacheTagRegexViewFilter.getCacheMissesCount());
+
+        // Cache is sized and reported from finders too.
+        final List<QueryMetrics> queryMetricsList = new ArrayList<>();
+        final ViewsFinder metricsViewsFinder = Views.from(rootView).withTagRegex(2, "textView_[0-9]").withMetricsListener(new QueryMetricsListener() {
+            @Override
+            public void onQueryMetrics(final QueryMetrics queryMetrics) {
+                queryMetricsList.add(queryMetrics);
+            }
+        });
+        assertViews(metricsViewsFinder.find(), textView1, textView2);
+        assertViews(metricsViewsFinder.find(), textView1, textView2);
+        assertEquals(2, queryMetricsList.get(0).getCacheMissesCount(0));
+        assertEquals(2, queryMetricsList.get(1).getCacheHitsCount(0));
+        assertEquals(0, queryMetricsList.get(1).getCacheMissesCount(0));
+
+        // Literals are not cached.
+        final TagRegexViewFilter literalTagRegexViewFilter = new TagRegexViewFilter(new String[]{"textView_1"});
+        assertViews(Views.from(rootView).filteredWith(literalTagRegexViewFilter).find(), textView1);
+        assertEquals(0, literalTagRegexViewFilter.getCacheSize());
+        assertTrue(Float.isNaN(literalTagRegexViewFilter.getCacheHitRate()));
+    }
+
     @SmallTest
     public void testWithVisibility() {
         final List<View> views = Views.from(rootView).withVisibility(View.GONE).find();
@@ -153,6 +337,883 @@ public class ViewsTest extends ApplicationTestCase<Application> {
         assertViews(views, textView1, viewGroup1,  textView2, button1, viewGroup2, button2, button3);
     }
 
+    @SmallTest
+    public void testIterator() {
+        final List<View> views = new ArrayList<>();
+        for (final View view : Views.from(viewGroup1).includingFromViews().andFrom(viewGroup2).not().withVisibility(View.GONE)) {
+            views.add(view);
+        }
+        assertViews(views, viewGroup1, textView2, button1, button2, button3);
+    }
+
+    @SmallTest
+    public void testFindFirst() {
+        final List<View> filteredViews = new ArrayList<>();
+        final View view = Views.from(rootView)
+                .filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        filteredViews.add(view);
+                        return view instanceof Button;
+                    }
+                })
+                .findFirst();
+
+        assertSame(button1, view);
+        assertViews(filteredViews, textView1, viewGroup1, textView2, button1);
+        assertNull(Views.from(viewGroup1).withType(EditText.class).findFirst());
+    }
+
+    @SmallTest
+    public void testAnyCountAndLimit() {
+        assertTrue(Views.from(rootView).withTag("textView_2").any());
+        assertFalse(Views.from(rootView).withTag("unknown").any());
+        assertEquals(8, Views.from(rootView).count());
+        assertEquals(3, Views.from(rootView).withType(Button.class).count());
+        assertViews(Views.from(rootView).withType(Button.class).limit(2), button1, button2);
+        assertViews(Views.from(rootView).withType(Button.class).limit(5), button1, button2, button3);
+    }
+
+    @SmallTest
+    public void testCompile() {
+        final ViewsFinder viewsFinder = Views.from(rootView).withType(Button.class);
+        final CompiledViewQuery compiledViewQuery = viewsFinder.compile();
+        assertSame(compiledViewQuery, viewsFinder.compile());
+        assertViews(compiledViewQuery.find(), button1, button2, button3);
+        assertViews(compiledViewQuery.find(), button1, button2, button3);
+
+        viewsFinder.withVisibility(View.VISIBLE);
+        assertNotSame(compiledViewQuery, viewsFinder.compile());
+        assertViews(viewsFinder.find(), button2, button3);
+    }
+
+    @SmallTest
+    public void testCompileMergesFilters() {
+        assertViews(Views.from(rootView).withTag("textView_1", "textView_2").withTag("textView_2").find(), textView2);
+        assertViews(Views.from(rootView).withId(android.R.id.text1).withId(android.R.id.text2).find());
+        assertViews(Views.from(viewGroup1).not().withId(android.R.id.text1).not().withId(android.R.id.text2).find(), button1);
+        assertViews(Views.from(rootView).filteredWith(new ComplementedViewFilter(new ComplementedViewFilter(new TagViewFilter(new String[]{"textView_1"})))).find(), textView1);
+    }
+
+    @SmallTest
+    public void testCompileOrdersFiltersByCost() {
+        final List<View> filteredViews = new ArrayList<>();
+        final List<View> views = Views.from(rootView)
+                .filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        filteredViews.add(view);
+                        return true;
+                    }
+                })
+                .withId(android.R.id.button2)
+                .find();
+
+        assertViews(views, button2);
+        assertViews(filteredViews, button2);
+    }
+
+    @MediumTest
+    public void testViewsIndex() {
+        final ViewsIndex viewsIndex = ViewsIndex.attach(rootView);
+        try {
+            assertSame(viewsIndex, ViewsIndex.attach(rootView));
+            assertViews(Views.from(rootView).withType(Button.class).find(), button1, button2, button3);
+            assertViews(Views.from(rootView).withTag("textView_2", "textView_1").find(), textView1, textView2);
+            assertViews(Views.from(rootView).withId(android.R.id.button3).excludeView(viewGroup3).excludingChildsFromFilteredGroupViews().find());
+
+            // Index follows hierarchy changes.
+            final View button4 = new Button(getContext());
+            viewGroup1.addView(button4, 0);
+            viewGroup2.removeView(viewGroup3);
+            assertViews(Views.from(rootView).withType(Button.class).find(), button4, button1, button2);
+
+            // Index follows tags changed through it, or refreshed.
+            viewsIndex.setTag(button2, "button_2");
+            button1.setTag("button_1");
+            assertViews(Views.from(rootView).withTag("button_1", "button_2").find(), button2);
+            viewsIndex.refresh(viewGroup1);
+            assertViews(Views.from(rootView).withTag("button_1", "button_2").find(), button1, button2);
+        } finally {
+            viewsIndex.detach();
+        }
+        assertNull(ViewsIndex.of(rootView));
+    }
+
+    @MediumTest
+    public void testViewsIndexChainsHierarchyChangeListeners() {
+        final List<View> addedViews = new ArrayList<>();
+        final ViewGroup.OnHierarchyChangeListener onHierarchyChangeListener = new ViewGroup.OnHierarchyChangeListener() {
+            @Override
+            public void onChildViewAdded(final View parent, final View child) {
+                addedViews.add(child);
+            }
+
+            @Override
+            public void onChildViewRemoved(final View parent, final View child) {
+            }
+        };
+        viewGroup1.setOnHierarchyChangeListener(onHierarchyChangeListener);
+
+        // Previous listener is still called while index is attached.
+        final ViewsIndex viewsIndex = ViewsIndex.attach(rootView);
+        final View button4 = new Button(getContext());
+        viewGroup1.addView(button4);
+        assertViews(Views.from(rootView).withType(Button.class).find(), button1, button4, button2, button3);
+        viewsIndex.detach();
+
+        // Previous listener is put back once index is detached.
+        final View button5 = new Button(getContext());
+        viewGroup1.addView(button5);
+        assertViews(addedViews, button4, button5);
+        viewGroup1.setOnHierarchyChangeListener(null);
+    }
+
+    @SmallTest
+    public void testHierarchyChangesNotObservable() throws Exception {
+        final ViewGroup.OnHierarchyChangeListener onHierarchyChangeListener = new ViewGroup.OnHierarchyChangeListener() {
+            @Override
+            public void onChildViewAdded(final View parent, final View child) {
+            }
+
+            @Override
+            public void onChildViewRemoved(final View parent, final View child) {
+            }
+        };
+        viewGroup1.setOnHierarchyChangeListener(onHierarchyChangeListener);
+        final Field onHierarchyChangeListenerField = ViewsHierarchyObserver.setOnHierarchyChangeListenerField(null);
+        try {
+            // Index is not attached, and listeners are left untouched.
+            ViewsIndex.attach(rootView).setTag(button1, "indexed");
+            assertNull(ViewsIndex.of(rootView));
+            assertSame(onHierarchyChangeListener, onHierarchyChangeListenerField.get(viewGroup1));
+            assertViews(Views.from(rootView).withTag("indexed").find(), button1);
+
+            // Finders are not cached, so added views are found without layout.
+            final ViewsFinder viewsFinder = Views.from(rootView).withType(Button.class).cached();
+            assertViews(viewsFinder.find(), button1, button2, button3);
+            final View button4 = new Button(getContext());
+            viewGroup1.addView(button4);
+            assertViews(viewsFinder.find(), button1, button4, button2, button3);
+            assertEquals(0, viewsFinder.compile().getCacheHitCount());
+            assertSame(onHierarchyChangeListener, onHierarchyChangeListenerField.get(viewGroup1));
+        } finally {
+            ViewsHierarchyObserver.setOnHierarchyChangeListenerField(onHierarchyChangeListenerField);
+            viewGroup1.setOnHierarchyChangeListener(null);
+        }
+    }
+
+    @SmallTest
+    public void testCached() {
+        final ViewsFinder viewsFinder = Views.from(rootView).withType(Button.class).cached();
+        assertViews(viewsFinder.find(), button1, button2, button3);
+        assertViews(viewsFinder.find(), button1, button2, button3);
+        assertEquals(1, viewsFinder.compile().getCacheHitCount());
+        assertEquals(1, viewsFinder.compile().getCacheMissCount());
+
+        // Cache is invalidated by hierarchy changes.
+        viewGroup2.removeView(viewGroup3);
+        assertViews(viewsFinder.find(), button1, button2);
+        assertEquals(2, viewsFinder.compile().getCacheMissCount());
+
+        // Cache is invalidated by layouts.
+        viewsFinder.find();
+        rootView.getViewTreeObserver().dispatchOnGlobalLayout();
+        assertViews(viewsFinder.find(), button1, button2);
+        assertEquals(3, viewsFinder.compile().getCacheMissCount());
+        viewsFinder.compile().release();
+    }
+
+    @SmallTest
+    public void testCachedWithNestedRootViews() {
+        final ViewsFinder viewsFinder = Views.from(viewGroup1).withType(Button.class).andFrom(viewGroup2).withType(Button.class).cached();
+        assertViews(viewsFinder.find(), button1, button2, button3);
+
+        // Cache is invalidated by hierarchy changes of nested query's root views too.
+        final View button4 = new Button(getContext());
+        viewGroup1.addView(button4);
+        assertViews(viewsFinder.find(), button1, button4, button2, button3);
+        viewsFinder.compile().release();
+    }
+
+    @SmallTest
+    public void testCachedObservesRootViewOnce() {
+        // Cached finders built again and again share a single observer per root view.
+        for (int findIndex = 0; findIndex < 10; findIndex++) {
+            Views.from(rootView).withType(Button.class).cached().find();
+        }
+        assertEquals(1, ((List<?>) rootView.getTag(R.id.viewsfrom_hierarchy_listeners)).size());
+
+        // Observer is removed once its caches are released.
+        final ViewsFinder viewsFinder = Views.from(viewGroup1).withType(Button.class).cached();
+        viewsFinder.find();
+        assertNotNull(viewGroup1.getTag(R.id.viewsfrom_result_caches));
+        viewsFinder.compile().release();
+        assertNull(viewGroup1.getTag(R.id.viewsfrom_result_caches));
+        assertNull(viewGroup1.getTag(R.id.viewsfrom_hierarchy_listeners));
+    }
+
+    @SmallTest
+    public void testFindInList() {
+        final List<View> views = new ArrayList<>();
+        views.add(rootView);
+        Views.from(viewGroup1).withVisibility(View.VISIBLE).andFrom(viewGroup2).withType(Button.class).find(views);
+        assertViews(views, rootView, textView2, button2, button3);
+    }
+
+    @SmallTest
+    public void testVisit() {
+        final List<View> visitedViews = new ArrayList<>();
+        final int visitedViewsCount = Views.from(viewGroup1).withVisibility(View.VISIBLE).andFrom(viewGroup2).withType(Button.class).visit(new ViewVisitor() {
+            @Override
+            public boolean onView(final View view, final int viewIndex) {
+                assertEquals(visitedViews.size(), viewIndex);
+                visitedViews.add(view);
+                return true;
+            }
+        });
+        assertEquals(3, visitedViewsCount);
+        assertViews(visitedViews, textView2, button2, button3);
+
+        visitedViews.clear();
+        Views.from(viewGroup1).withVisibility(View.VISIBLE).andFrom(viewGroup2).withType(Button.class).visit(new ViewVisitor() {
+            @Override
+            public boolean onView(final View view, final int viewIndex) {
+                visitedViews.add(view);
+                return viewIndex < 1;
+            }
+        });
+        assertViews(visitedViews, textView2, button2);
+    }
+
+    @SmallTest
+    @SuppressWarnings("unchecked")
+    public void testFindInSnapshot() throws Exception {
+        final ViewsFinder[] viewsFinders = {
+                Views.from(rootView),
+                Views.from(rootView).onlyShownViews(),
+                Views.from(rootView).withType(Button.class).excludingChildsFromFilteredGroupViews(),
+                Views.from(rootView).not().withTagRegex("textView_[0-9]").excludeViewAndChilds(viewGroup1),
+                Views.from(viewGroup1).includingFromViews().withVisibility(View.VISIBLE).andFrom(viewGroup2, viewGroup2).withType(Button.class),
+                Views.from(rootView).filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        return view instanceof TextView;
+                    }
+                }).orderedBy(new Comparator<View>() {
+                    @Override
+                    public int compare(final View view1, final View view2) {
+                        return view2.getClass().getSimpleName().compareTo(view1.getClass().getSimpleName());
+                    }
+                })
+        };
+
+        // Finds in a snapshot must match finds in views.
+        for (final ViewsFinder viewsFinder : viewsFinders) {
+            final List<View> expectedViews = viewsFinder.find();
+            assertViews(viewsFinder.compile().find(viewsFinder.snapshot()), expectedViews.toArray(new View[expectedViews.size()]));
+        }
+
+        // Snapshot keeps captured attributes.
+        final ViewsSnapshot viewsSnapshot = Views.from(rootView).snapshot();
+        assertEquals(9, viewsSnapshot.getViewsCount());
+        assertEquals(-1, viewsSnapshot.getParentIndex(0));
+        textView1.setTag("changed");
+        assertEquals("textView_1", viewsSnapshot.getTag(1));
+        assertViews(Views.from(rootView).withTag("textView_1").compile().find(viewsSnapshot), textView1);
+        assertViews(Views.from(rootView).withVisibility(View.GONE).find(viewsSnapshot), viewGroup3);
+        assertEquals(Button.class, viewsSnapshot.getType(8));
+        assertEquals(View.GONE, viewsSnapshot.getVisibility(7));
+
+        // Views are found by executor.
+        final Future<List<View>> futureViews = Views.from(rootView).withType(Button.class).findAsync(new Executor() {
+            @Override
+            public void execute(final Runnable runnable) {
+                runnable.run();
+            }
+        }, null);
+        assertViews(futureViews.get(), button1, button2, button3);
+
+        // Snapshot must contain root views.
+        try {
+            Views.from(viewGroup1).compile().find(Views.from(viewGroup2).snapshot());
+            fail("It should fail on a root view missing from snapshot.");
+        } catch (final IllegalArgumentException exception) {
+            // Expected.
+        }
+    }
+
+    @SmallTest
+    public void testQueryMetrics() {
+        final List<QueryMetrics> reportedQueryMetrics = new ArrayList<>();
+        final ViewsFinder viewsFinder = Views.from(rootView)
+                .withType(Button.class)
+                .cached()
+                .withMetricsListener(new QueryMetricsListener() {
+                    @Override
+                    public void onQueryMetrics(final QueryMetrics queryMetrics) {
+                        reportedQueryMetrics.add(queryMetrics);
+                    }
+                });
+
+        // First find traverses all views.
+        assertViews(viewsFinder.find(), button1, button2, button3);
+        final QueryMetrics queryMetrics = reportedQueryMetrics.get(0);
+        assertEquals(8, queryMetrics.getVisitedViewsCount());
+        assertEquals(4, queryMetrics.getDescendedGroupViewsCount());
+        assertEquals(3, queryMetrics.getMatchedViewsCount());
+        assertFalse(queryMetrics.isAnsweredFromCache());
+        assertFalse(queryMetrics.isAnsweredFromIndex());
+        assertEquals(1, queryMetrics.getFiltersCount());
+        assertTrue(queryMetrics.getFilter(0) instanceof TypeViewFilter);
+        assertEquals(8, queryMetrics.getEvaluationsCount(0));
+        assertEquals(5, queryMetrics.getRejectionsCount(0));
+
+        // Second find is answered by cache.
+        assertViews(viewsFinder.find(), button1, button2, button3);
+        final QueryMetrics cachedQueryMetrics = reportedQueryMetrics.get(1);
+        assertTrue(cachedQueryMetrics.isAnsweredFromCache());
+        assertEquals(0, cachedQueryMetrics.getVisitedViewsCount());
+        assertEquals(0, cachedQueryMetrics.getEvaluationsCount(0));
+        assertEquals(3, cachedQueryMetrics.getMatchedViewsCount());
+    }
+
+    @SmallTest
+    public void testQueryMetricsOfEarlyStops() {
+        final List<QueryMetrics> reportedQueryMetrics = new ArrayList<>();
+        final ViewsFinder viewsFinder = Views.from(rootView)
+                .withType(Button.class)
+                .withMetricsListener(new QueryMetricsListener() {
+                    @Override
+                    public void onQueryMetrics(final QueryMetrics queryMetrics) {
+                        reportedQueryMetrics.add(queryMetrics);
+                    }
+                });
+
+        // First view is found after 4 views visited.
+        assertSame(button1, viewsFinder.findFirst());
+        assertEquals(1, reportedQueryMetrics.size());
+        assertEquals(4, reportedQueryMetrics.get(0).getVisitedViewsCount());
+        assertEquals(1, reportedQueryMetrics.get(0).getMatchedViewsCount());
+        assertEquals(4, reportedQueryMetrics.get(0).getEvaluationsCount(0));
+
+        // Counts and limits are measured too.
+        assertEquals(3, viewsFinder.count());
+        assertEquals(8, reportedQueryMetrics.get(1).getVisitedViewsCount());
+        assertEquals(3, reportedQueryMetrics.get(1).getMatchedViewsCount());
+        assertTrue(viewsFinder.any());
+        assertViews(viewsFinder.limit(2), button1, button2);
+        assertEquals(4, reportedQueryMetrics.size());
+        assertEquals(2, reportedQueryMetrics.get(3).getMatchedViewsCount());
+    }
+
+    @SmallTest
+    public void testAdaptiveFilterOrder() {
+        final int[] keepingFilterEvaluationsCount = {0};
+        final List<QueryMetrics> reportedQueryMetrics = new ArrayList<>();
+        final ViewsFinder viewsFinder = Views.from(rootView)
+                .filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        keepingFilterEvaluationsCount[0]++;
+                        return true;
+                    }
+                })
+                .filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        return view instanceof Button;
+                    }
+                })
+                .withAdaptiveFilterOrder(4)
+                .withMetricsListener(new QueryMetricsListener() {
+                    @Override
+                    public void onQueryMetrics(final QueryMetrics queryMetrics) {
+                        reportedQueryMetrics.add(queryMetrics);
+                    }
+                });
+
+        // First 4 views are evaluated by both filters, then the rejecting filter goes first.
+        assertViews(viewsFinder.find(), button1, button2, button3);
+        assertEquals(6, keepingFilterEvaluationsCount[0]);
+        final QueryMetrics queryMetrics = reportedQueryMetrics.get(0);
+        assertTrue(queryMetrics.isFiltersReordered());
+        assertEquals(1f, queryMetrics.getSampledPassRate(0), 0f);
+        assertEquals(0.25f, queryMetrics.getSampledPassRate(1), 0f);
+
+        // Filters stay reordered.
+        keepingFilterEvaluationsCount[0] = 0;
+        assertViews(viewsFinder.find(), button1, button2, button3);
+        assertEquals(3, keepingFilterEvaluationsCount[0]);
+    }
+
+    @MediumTest
+    public void testFindInParallel() throws Exception {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+
+        // Enough views for filters to be split across threads.
+        final ViewGroup largeRootView = new LinearLayout(getContext());
+        for (int groupIndex = 0; groupIndex < 20; groupIndex++) {
+            final ViewGroup groupView = new FrameLayout(getContext());
+            groupView.setVisibility(groupIndex % 5 == 0 ? View.GONE : View.VISIBLE);
+            for (int childIndex = 0; childIndex < 10; childIndex++) {
+                final View childView = childIndex % 2 == 0 ? new TextView(getContext()) : new Button(getContext());
+                childView.setTag("item_" + (groupIndex * 10 + childIndex));
+                groupView.addView(childView);
+            }
+            largeRootView.addView(groupView);
+        }
+        final ViewsFinder viewsFinder = Views.from(largeRootView)
+                .onlyShownViews()
+                .withTagRegex("item_[0-9]*[02468]$")
+                .filteredWith(new ViewFilter() {
+                    @Override
+                    public boolean filter(final View view) {
+                        return ((String) view.getTag()).length() > 6;
+                    }
+                });
+
+        // Views must be found in the same order as on main thread.
+        final List<View> expectedViews = viewsFinder.find();
+        assertEquals(80, expectedViews.size());
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            assertViews(viewsFinder.compile().findInParallel(viewsFinder.snapshot(), forkJoinPool), expectedViews.toArray(new View[expectedViews.size()]));
+            assertViews(viewsFinder.findAsync(forkJoinPool, null).get(), expectedViews.toArray(new View[expectedViews.size()]));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @MediumTest
+    @SuppressWarnings("deprecation")
+    public void testFindWithoutAllocation() {
+        final ViewsFinder viewsFinder = Views.from(viewGroup1)
+                .not().withId(android.R.id.text1)
+                .withVisibility(View.VISIBLE, View.INVISIBLE)
+                .andFrom(rootView)
+                .withType(Button.class, TextView.class)
+                .excludeViewAndChilds(viewGroup3);
+        final List<View> views = new ArrayList<>();
+        final ViewIteration viewIteration = new ViewIteration() {
+            @Override
+            public void onView(final View view, final int viewIndex, final int viewsCount) {
+            }
+        };
+        final ViewVisitor viewVisitor = new ViewVisitor() {
+            @Override
+            public boolean onView(final View view, final int viewIndex) {
+                return true;
+            }
+        };
+        // Warm up : compiles views finder and grows reused buffers.
+        viewsFinder.find(views);
+        viewsFinder.forEach(viewIteration);
+        viewsFinder.visit(viewVisitor);
+        views.clear();
+
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        for (int findIndex = 0; findIndex < 100; findIndex++) {
+            viewsFinder.find(views);
+            views.clear();
+            viewsFinder.forEach(viewIteration);
+            viewsFinder.visit(viewVisitor);
+        }
+        final int allocCount = Debug.getThreadAllocCount();
+        Debug.stopAllocCounting();
+
+        assertEquals("Finds should not allocate anything.", 0, allocCount);
+    }
+
+    @SmallTest
+    public void testApply() {
+        final ViewsMutator viewsMutator = Views.from(rootView).withType(Button.class).apply().visibility(View.INVISIBLE);
+        assertEquals(2, viewsMutator.commit());
+        assertEquals(View.INVISIBLE, button2.getVisibility());
+        assertEquals(View.INVISIBLE, button3.getVisibility());
+        assertEquals(0, viewsMutator.commit());
+
+        assertEquals(3, viewsMutator.enabled(false).alpha(0.5f).commit());
+        assertFalse(button1.isEnabled());
+        assertEquals(0.5f, button1.getAlpha(), 0f);
+        assertTrue(textView1.isEnabled());
+
+        // Tags are compared with equals().
+        assertEquals(3, viewsMutator.tag("disabled").commit());
+        assertEquals("disabled", button2.getTag());
+        assertEquals(0, Views.from(rootView).withType(Button.class).apply().tag(new String("disabled")).commit());
+    }
+
+    @SmallTest
+    public void testViewsVisibilityBeforeAnimation() {
+        final List<View> setVisibilityViews = new ArrayList<>();
+        final List<View> animatedViews = new ArrayList<>();
+        animatedViews.add(new Button(getContext()) {
+            @Override
+            public void setVisibility(final int visibility) {
+                super.setVisibility(visibility);
+                setVisibilityViews.add(this);
+            }
+        });
+        animatedViews.add(button1);
+
+        // Views which already have the visibility are left untouched.
+        new ViewsAnimator(animatedViews, new AnimationProvider() {
+            @Override
+            public Animation provide() {
+                return new Animation() {
+                };
+            }
+        }).withViewsVisibilityBeforeAnimation(View.VISIBLE).start();
+        assertTrue(setVisibilityViews.isEmpty());
+        assertEquals(View.VISIBLE, button1.getVisibility());
+    }
+
+    @SmallTest
+    public void testAnimationPool() {
+        final List<Animation> providedAnimations = new ArrayList<>();
+        final AnimationPool animationPool = new AnimationPool(new ReusableAnimationProvider() {
+            @Override
+            public Animation provide() {
+                final Animation animation = new Animation() {
+                };
+                animation.setStartOffset(10);
+                providedAnimations.add(animation);
+                return animation;
+            }
+        });
+
+        final Animation firstAnimation = animationPool.obtain();
+        final Animation secondAnimation = animationPool.obtain();
+        assertNotSame(firstAnimation, secondAnimation);
+        firstAnimation.setStartOffset(250);
+        animationPool.recycle(firstAnimation);
+        assertSame(firstAnimation, animationPool.obtain());
+        assertEquals(10, firstAnimation.getStartOffset());
+
+        secondAnimation.setFillAfter(true);
+        animationPool.recycle(secondAnimation);
+        assertNotSame(secondAnimation, animationPool.obtain());
+        assertEquals(3, providedAnimations.size());
+
+        // Animations filling after once provided are never pooled.
+        final AnimationPool fillAfterAnimationPool = new AnimationPool(new ReusableAnimationProvider() {
+            @Override
+            public Animation provide() {
+                final Animation animation = new Animation() {
+                };
+                animation.setFillAfter(true);
+                return animation;
+            }
+        });
+        final Animation fillAfterAnimation = fillAfterAnimationPool.obtain();
+        fillAfterAnimation.setFillAfter(false);
+        fillAfterAnimationPool.recycle(fillAfterAnimation);
+        assertNotSame(fillAfterAnimation, fillAfterAnimationPool.obtain());
+    }
+
+    @SmallTest
+    public void testAnimateDetachedViews() {
+        // Views are not attached to any window, so their animations would never end.
+        final boolean[] ended = new boolean[1];
+        final ViewsAnimator viewsAnimator = Views.from(rootView).withType(Button.class).animateWith(new AnimationProvider() {
+            @Override
+            public Animation provide() {
+                final Animation animation = new Animation() {
+                };
+                animation.setDuration(300);
+                return animation;
+            }
+        }).withDelayBetweenEachChild(50).withEndAction(new Runnable() {
+            @Override
+            public void run() {
+                ended[0] = true;
+            }
+        }).start();
+        assertTrue(ended[0]);
+
+        // Ending a run of detached views still calls end action.
+        ended[0] = false;
+        viewsAnimator.start().end();
+        assertTrue(ended[0]);
+    }
+
+    @SmallTest
+    public void testRestartAnimations() {
+        final List<View> drawnViews = new ArrayList<>();
+        drawnViews.add(createDrawnButton());
+        drawnViews.add(createDrawnButton());
+        final List<Animation> providedAnimations = new ArrayList<>();
+        final int[] endActionsCount = new int[1];
+        final ViewsAnimator viewsAnimator = new ViewsAnimator(drawnViews, new ReusableAnimationProvider() {
+            @Override
+            public Animation provide() {
+                final Animation animation = new Animation() {
+                };
+                animation.setDuration(300);
+                providedAnimations.add(animation);
+                return animation;
+            }
+        }).withEndAction(new Runnable() {
+            @Override
+            public void run() {
+                endActionsCount[0]++;
+            }
+        });
+
+        // Cancelled animations are not recycled, since their end may still be posted to their views.
+        viewsAnimator.start();
+        final Animation firstAnimation = drawnViews.get(0).getAnimation();
+        viewsAnimator.start();
+        assertEquals(4, providedAnimations.size());
+        assertNotSame(firstAnimation, drawnViews.get(0).getAnimation());
+        assertSame(providedAnimations.get(2), drawnViews.get(0).getAnimation());
+        assertSame(providedAnimations.get(3), drawnViews.get(1).getAnimation());
+        assertEquals(0, endActionsCount[0]);
+        viewsAnimator.cancel();
+    }
+
+    @SmallTest
+    public void testPropertyAnimations() {
+        final List<View> animatedViews = new ArrayList<>();
+        animatedViews.add(textView1);
+        animatedViews.add(textView2);
+        animatedViews.add(button1);
+        textView1.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        for (final View animatedView : animatedViews) {
+            animatedView.animate().setDuration(200);
+        }
+        final int[] endActionsCount = new int[1];
+        final ViewsAnimator viewsAnimator = new ViewsAnimator(animatedViews, new PropertyAnimationProvider() {
+            @Override
+            public void provide(final View view, final ViewPropertyAnimator viewPropertyAnimator) {
+                view.setAlpha(0f);
+                viewPropertyAnimator.alpha(0.5f);
+            }
+        }).withDelayBetweenEachChild(50).onlyVisibleOnScreen().withEndAction(new Runnable() {
+            @Override
+            public void run() {
+                endActionsCount[0]++;
+            }
+        }).start();
+        assertEquals(0.5f, textView2.getAlpha(), 0f);
+        assertEquals(0.5f, button1.getAlpha(), 0f);
+        assertEquals(1, endActionsCount[0]);
+
+        // Layer types, start delays and durations are restored once animations have ended, including instant ones.
+        assertEquals(View.LAYER_TYPE_SOFTWARE, textView1.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, textView2.getLayerType());
+        for (final View animatedView : animatedViews) {
+            assertEquals(0, animatedView.animate().getStartDelay());
+            assertEquals(200, animatedView.animate().getDuration());
+        }
+
+        // They are restored once animations have been cancelled too.
+        viewsAnimator.start().cancel();
+        assertEquals(View.LAYER_TYPE_SOFTWARE, textView1.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, textView2.getLayerType());
+        assertEquals(0, textView2.animate().getStartDelay());
+        assertEquals(200, button1.animate().getDuration());
+    }
+
+    @SmallTest
+    public void testOnlyVisibleOnScreen() {
+        final List<View> drawnViews = new ArrayList<>();
+        drawnViews.add(createDrawnButton());
+        drawnViews.add(createDrawnButton(false));
+        drawnViews.add(createDrawnButton());
+        new ViewsAnimator(drawnViews, new AnimationProvider() {
+            @Override
+            public Animation provide() {
+                final Animation animation = new Animation() {
+                };
+                animation.setDuration(300);
+                return animation;
+            }
+        }).withDelayBetweenEachChild(50).onlyVisibleOnScreen().start();
+
+        // Clipped view is animated instantly, and doesn't take a slot.
+        assertEquals(0, drawnViews.get(0).getAnimation().getStartOffset());
+        assertEquals(300, drawnViews.get(0).getAnimation().getDuration());
+        assertEquals(0, drawnViews.get(1).getAnimation().getStartOffset());
+        assertEquals(0, drawnViews.get(1).getAnimation().getDuration());
+        assertEquals(50, drawnViews.get(2).getAnimation().getStartOffset());
+        assertEquals(300, drawnViews.get(2).getAnimation().getDuration());
+
+        // Same when animations are scheduled on frames.
+        final List<View> startedViews = new ArrayList<>();
+        final List<View> instantViews = new ArrayList<>();
+        final StaggerScheduler staggerScheduler = new StaggerScheduler(drawnViews, 100, 0, true, 0, new StaggerScheduler.ViewAnimationStarter() {
+            @Override
+            public boolean startAnimation(final View view, final boolean instant, final Runnable animationEndCallback) {
+                startedViews.add(view);
+                if (instant) {
+                    instantViews.add(view);
+                }
+                return true;
+            }
+        }, null, new FrameTicker() {
+            @Override
+            void postFrame(final FrameListener frameListener) {
+            }
+
+            @Override
+            void cancel() {
+            }
+        });
+        final long millis = 1000000;
+        staggerScheduler.onFrame(0);
+        assertViews(startedViews, drawnViews.get(0));
+        staggerScheduler.onFrame(100 * millis);
+        assertViews(startedViews, drawnViews.get(0), drawnViews.get(1), drawnViews.get(2));
+        assertViews(instantViews, drawnViews.get(1));
+    }
+
+    @SmallTest
+    public void testStaggerScheduler() {
+        final List<View> startedViews = new ArrayList<>();
+        final List<Runnable> animationEndCallbacks = new ArrayList<>();
+        final boolean[] ended = new boolean[1];
+        final StaggerScheduler staggerScheduler = new StaggerScheduler(Views.from(rootView).withType(TextView.class, Button.class).find(), 100, 2, false, 0, new StaggerScheduler.ViewAnimationStarter() {
+            @Override
+            public boolean startAnimation(final View view, final boolean instant, final Runnable animationEndCallback) {
+                startedViews.add(view);
+                animationEndCallbacks.add(animationEndCallback);
+                return true;
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                ended[0] = true;
+            }
+        }, new FrameTicker() {
+            @Override
+            void postFrame(final FrameListener frameListener) {
+            }
+
+            @Override
+            void cancel() {
+            }
+        });
+        final long millis = 1000000;
+
+        // Views are started when their slot comes due.
+        staggerScheduler.onFrame(1000 * millis);
+        assertViews(startedViews, textView1);
+        staggerScheduler.onFrame(1150 * millis);
+        assertViews(startedViews, textView1, textView2);
+
+        // Running animations count is capped.
+        staggerScheduler.onFrame(1300 * millis);
+        assertViews(startedViews, textView1, textView2);
+        animationEndCallbacks.get(0).run();
+        staggerScheduler.onFrame(1316 * millis);
+        assertViews(startedViews, textView1, textView2, button1);
+
+        // End action is called once all animations have ended.
+        animationEndCallbacks.get(1).run();
+        animationEndCallbacks.get(2).run();
+        staggerScheduler.onFrame(2000 * millis);
+        assertViews(startedViews, textView1, textView2, button1, button2, button3);
+        animationEndCallbacks.get(3).run();
+        assertFalse(ended[0]);
+        animationEndCallbacks.get(4).run();
+        assertTrue(ended[0]);
+    }
+
+    @SmallTest
+    public void testStaggerSchedulerWithFrameBudget() {
+        final List<View> startedViews = new ArrayList<>();
+        final List<View> instantViews = new ArrayList<>();
+        final StaggerScheduler staggerScheduler = new StaggerScheduler(Views.from(rootView).withType(TextView.class, Button.class).find(), 100, 0, false, 20, new StaggerScheduler.ViewAnimationStarter() {
+            @Override
+            public boolean startAnimation(final View view, final boolean instant, final Runnable animationEndCallback) {
+                startedViews.add(view);
+                if (instant) {
+                    instantViews.add(view);
+                }
+                return true;
+            }
+        }, null, new FrameTicker() {
+            @Override
+            void postFrame(final FrameListener frameListener) {
+            }
+
+            @Override
+            void cancel() {
+            }
+        });
+        final long millis = 1000000;
+
+        // Two slots are due, and frames are within budget.
+        for (long frameTime = 0; frameTime <= 112; frameTime += 16) {
+            staggerScheduler.onFrame(frameTime * millis);
+        }
+        assertViews(startedViews, textView1, textView2);
+
+        // Two frames over budget reduce running animations count to one, so third slot is due but not started.
+        staggerScheduler.onFrame(150 * millis);
+        staggerScheduler.onFrame(200 * millis);
+        assertViews(startedViews, textView1, textView2);
+
+        // Two more collapse delays, and two more animate remaining views instantly.
+        staggerScheduler.onFrame(250 * millis);
+        staggerScheduler.onFrame(300 * millis);
+        staggerScheduler.onFrame(350 * millis);
+        staggerScheduler.onFrame(400 * millis);
+        assertViews(startedViews, textView1, textView2, button1, button2, button3);
+        assertViews(instantViews, button1, button2, button3);
+    }
+
+    @SmallTest
+    public void testViewsAnimationRun() {
+        final int[] endActionsCount = new int[1];
+        final int[] cancelledAnimationsCount = new int[1];
+        final Runnable endAction = new Runnable() {
+            @Override
+            public void run() {
+                endActionsCount[0]++;
+            }
+        };
+        final ViewsAnimationRun.RunningAnimation runningAnimation = new ViewsAnimationRun.RunningAnimation() {
+            @Override
+            public void cancel() {
+                cancelledAnimationsCount[0]++;
+            }
+
+            @Override
+            public void end() {
+            }
+        };
+
+        // End action is called once, after all animations have ended.
+        final ViewsAnimationRun endedViewsAnimationRun = new ViewsAnimationRun(endAction);
+        endedViewsAnimationRun.onAnimationStart(runningAnimation);
+        endedViewsAnimationRun.onAnimationStart(runningAnimation);
+        endedViewsAnimationRun.onAnimationEnd();
+        endedViewsAnimationRun.onAllAnimationsStarted();
+        assertEquals(0, endActionsCount[0]);
+        endedViewsAnimationRun.onAnimationEnd();
+        assertEquals(1, endActionsCount[0]);
+        assertTrue(endedViewsAnimationRun.isOver());
+        endedViewsAnimationRun.onAnimationEnd();
+        assertEquals(1, endActionsCount[0]);
+
+        // Cancelled run cancels its animations, and never calls end action.
+        final ViewsAnimationRun cancelledViewsAnimationRun = new ViewsAnimationRun(endAction);
+        cancelledViewsAnimationRun.onAnimationStart(runningAnimation);
+        cancelledViewsAnimationRun.onAnimationStart(runningAnimation);
+        cancelledViewsAnimationRun.onAllAnimationsStarted();
+        cancelledViewsAnimationRun.cancel();
+        assertEquals(2, cancelledAnimationsCount[0]);
+        cancelledViewsAnimationRun.onAnimationEnd();
+        cancelledViewsAnimationRun.onAnimationEnd();
+        assertEquals(1, endActionsCount[0]);
+    }
+
     @SmallTest
     public void testCheckParameterIsNotNull() {
         try {
@@ -252,4 +1313,33 @@ public class ViewsTest extends ApplicationTestCase<Application> {
         viewGroup3.addView(button3);
     }
 
+    /**
+     * Creates a button that is considered attached to a window, so that its animations are not ended at once.
+     *
+     * @return Button.
+     */
+    private View createDrawnButton() {
+        return createDrawnButton(true);
+    }
+
+    /**
+     * Creates a button that is considered attached to a window, so that its animations are not ended at once.
+     *
+     * @param visibleOnScreen TRUE if button is visible on screen, FALSE if it is clipped.
+     * @return Button.
+     */
+    private View createDrawnButton(final boolean visibleOnScreen) {
+        return new Button(getContext()) {
+            @Override
+            public IBinder getWindowToken() {
+                return WINDOW_TOKEN;
+            }
+
+            @Override
+            public boolean getGlobalVisibleRect(final Rect rect, final Point globalOffset) {
+                return visibleOnScreen;
+            }
+        };
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.animation.Animation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of animations from a reusable animation provider.
+ * Ended animations are recycled, so a provider is called only when all its animations are running.
+ * A first run still needs as many provided animations as views running together : only following runs reuse them.
+ */
+final class AnimationPool {
+
+    /**
+     * Reusable animation provider.
+     */
+    private final ReusableAnimationProvider reusableAnimationProvider;
+
+    /**
+     * Provided start offset and duration of each poolable animation, restored when it is reused.
+     * Animations don't override equals(), so they are compared by identity, and held weakly,
+     * so cancelled animations or animations that never end are not kept.
+     */
+    private final Map<Animation, long[]> providedTimings = new WeakHashMap<>();
+
+    /**
+     * Ended animations, ready to be reused.
+     */
+    private final List<Animation> endedAnimations = new ArrayList<>();
+
+    /**
+     * AnimationPool's constructor.
+     *
+     * @param reusableAnimationProvider Reusable animation provider.
+     */
+    AnimationPool(@NonNull final ReusableAnimationProvider reusableAnimationProvider) {
+        this.reusableAnimationProvider = reusableAnimationProvider;
+    }
+
+    /**
+     * Obtains an animation, reused if possible.
+     *
+     * @return Animation.
+     */
+    Animation obtain() {
+        // - Reuse last ended animation if possible.
+        final int endedAnimationsCount = endedAnimations.size();
+        if (endedAnimationsCount > 0) {
+            final Animation endedAnimation = endedAnimations.remove(endedAnimationsCount - 1);
+            final long[] providedTiming = providedTimings.get(endedAnimation);
+            endedAnimation.reset();
+            endedAnimation.setStartOffset(providedTiming[0]);
+            endedAnimation.setDuration(providedTiming[1]);
+            return endedAnimation;
+        }
+
+        // - Otherwise, provide a new one. Animations filling after are still applied to their view once ended, so they are never pooled.
+        final Animation providedAnimation = reusableAnimationProvider.provide();
+        if (!providedAnimation.getFillAfter()) {
+            providedTimings.put(providedAnimation, new long[]{providedAnimation.getStartOffset(), providedAnimation.getDuration()});
+        }
+        return providedAnimation;
+    }
+
+    /**
+     * Recycles an ended animation.
+     *
+     * @param endedAnimation Ended animation.
+     */
+    void recycle(@NonNull final Animation endedAnimation) {
+        // Animations set to fill after once provided can't be reused either.
+        if (!endedAnimation.getFillAfter() && providedTimings.containsKey(endedAnimation)) {
+            endedAnimations.add(endedAnimation);
+        }
+    }
+
+}
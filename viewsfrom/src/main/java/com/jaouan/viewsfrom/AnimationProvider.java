@@ -8,7 +8,7 @@ import android.view.animation.Animation;
 public interface AnimationProvider {
 
     /**
-     * Provides a new animation instance.
+     * Provides a new animation instance. Its listener is replaced by views animator.
      * @return New animation instance.
      */
     Animation provide();
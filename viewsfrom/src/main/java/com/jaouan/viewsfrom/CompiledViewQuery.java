@@ -0,0 +1,731 @@
+package com.jaouan.viewsfrom;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.jaouan.viewsfrom.filters.AggregatedViewFilters;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Compiled view query : an immutable views finder whose filters have been planned once, to be run many times.
+ * It must be used from one thread at a time, except for finds in a views snapshot.
+ */
+public final class CompiledViewQuery implements Iterable<View> {
+
+    /**
+     * Nested compiled view query when {@see ViewsFinder#andFrom} is used. NULL if there is none.
+     */
+    private final CompiledViewQuery nestedCompiledViewQuery;
+
+    /**
+     * Root views.
+     */
+    private final ViewGroup[] rootViews;
+
+    /**
+     * Planned view filter.
+     */
+    private final ViewFilter viewFilter;
+
+    /**
+     * Filter a views index can look candidates up with. NULL if there is none.
+     */
+    private final ViewFilter indexableViewFilter;
+
+    /**
+     * Include root view to views find.
+     */
+    private final boolean includeRootView;
+
+    /**
+     * Add childs from filtered group views.
+     */
+    private final boolean addChildsFromFilteredGroupViews;
+
+    /**
+     * View comparator. NULL if views are not ordered.
+     */
+    private final Comparator<View> viewComparator;
+
+    /**
+     * Views result cache. NULL if results are not cached.
+     */
+    private final ViewsResultCache viewsResultCache;
+
+    /**
+     * Query metrics listener. NULL if metrics are not reported.
+     */
+    private final QueryMetricsListener queryMetricsListener;
+
+    /**
+     * Counting view filters of planned filters. Empty if metrics are not reported.
+     */
+    private final CountingViewFilter[] countingViewFilters;
+
+    /**
+     * Planned view filter counting evaluations, used by finds when metrics are reported.
+     */
+    private final ViewFilter countedViewFilter;
+
+    /**
+     * Views traversal, reused from a find to another.
+     */
+    private final ViewsTraversal viewsTraversal = new ViewsTraversal();
+
+    /**
+     * Views traversal is in use.
+     */
+    private boolean viewsTraversalInUse;
+
+    /**
+     * Views list, reused from an iteration to another.
+     */
+    private final List<View> iteratedViews = new ArrayList<>();
+
+    /**
+     * Iterated views list is in use by an iteration.
+     */
+    private boolean iteratingViews;
+
+    /**
+     * CompiledViewQuery's constructor.
+     *
+     * @param nestedCompiledViewQuery         Nested compiled view query. Can be NULL.
+     * @param rootViews                       Root views.
+     * @param viewFilter                      Planned view filter.
+     * @param indexableViewFilter             Filter a views index can look candidates up with. Can be NULL.
+     * @param includeRootView                 Include root view to views find.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     * @param viewComparator                  View comparator. Can be NULL.
+     * @param cacheResults                    Cache found views until hierarchy changes.
+     * @param queryMetricsListener            Query metrics listener. Can be NULL.
+     */
+    CompiledViewQuery(final CompiledViewQuery nestedCompiledViewQuery, @NonNull final ViewGroup[] rootViews, @NonNull final ViewFilter viewFilter, final ViewFilter indexableViewFilter, final boolean includeRootView, final boolean addChildsFromFilteredGroupViews, final Comparator<View> viewComparator, final boolean cacheResults, final QueryMetricsListener queryMetricsListener) {
+        this.nestedCompiledViewQuery = nestedCompiledViewQuery;
+        this.rootViews = rootViews.clone();
+        this.viewFilter = viewFilter;
+        this.indexableViewFilter = indexableViewFilter;
+        this.includeRootView = includeRootView;
+        this.addChildsFromFilteredGroupViews = addChildsFromFilteredGroupViews;
+        this.viewComparator = viewComparator;
+        this.viewsResultCache = cacheResults ? new ViewsResultCache(getAllRootViews(nestedCompiledViewQuery, this.rootViews)) : null;
+        this.queryMetricsListener = queryMetricsListener;
+
+        // - Count evaluations of each planned filter if metrics are reported.
+        final ViewFilter[] plannedViewFilters = queryMetricsListener == null ? new ViewFilter[0]
+                : viewFilter instanceof AggregatedViewFilters ? ((AggregatedViewFilters) viewFilter).getViewFilters() : new ViewFilter[]{viewFilter};
+        this.countingViewFilters = new CountingViewFilter[plannedViewFilters.length];
+        final List<ViewFilter> countedViewFilters = new ArrayList<>(plannedViewFilters.length);
+        for (int filterIndex = 0; filterIndex < plannedViewFilters.length; filterIndex++) {
+            countingViewFilters[filterIndex] = CountingViewFilter.wrap(plannedViewFilters[filterIndex]);
+            countedViewFilters.add(countingViewFilters[filterIndex]);
+        }
+        final int samplesCount = viewFilter instanceof AggregatedViewFilters ? ((AggregatedViewFilters) viewFilter).getSamplesCount() : 0;
+        this.countedViewFilter = queryMetricsListener != null ? new AggregatedViewFilters(countedViewFilters, samplesCount) : viewFilter;
+    }
+
+    /**
+     * Gets nested compiled view query.
+     *
+     * @return Nested compiled view query, or NULL if there is none.
+     */
+    CompiledViewQuery getNestedCompiledViewQuery() {
+        return nestedCompiledViewQuery;
+    }
+
+    /**
+     * Finds and lists all found views.
+     *
+     * @return Found views.
+     */
+    public List<View> find() {
+        return find(new ArrayList<View>());
+    }
+
+    /**
+     * Finds all views, and adds them to a list.
+     * Nothing is allocated unless views have to be ordered, or a cache, an index or a metrics listener is used.
+     *
+     * @param views List where found views will be added.
+     * @return Views list.
+     */
+    public List<View> find(@NonNull final List<View> views) {
+        FunctionUtils.checkParameterIsNotNull("views", views);
+        TraceSections.begin("ViewsFinder.find");
+        try {
+            if (queryMetricsListener == null) {
+                return find(views, viewFilter, null);
+            }
+
+            // - Measure find.
+            final QueryMetrics queryMetrics = startMetrics();
+            final int firstViewIndex = views.size();
+            final long startNanos = System.nanoTime();
+            find(views, countedViewFilter, queryMetrics);
+            reportMetrics(queryMetrics, views.size() - firstViewIndex, startNanos);
+            return views;
+        } finally {
+            TraceSections.end();
+        }
+    }
+
+    /**
+     * Starts measuring a find : resets counting view filters.
+     *
+     * @return Query metrics to fill.
+     */
+    private QueryMetrics startMetrics() {
+        for (final CountingViewFilter countingViewFilter : countingViewFilters) {
+            countingViewFilter.reset();
+        }
+        return new QueryMetrics(countingViewFilters.length);
+    }
+
+    /**
+     * Reports metrics of a measured find to metrics listener.
+     *
+     * @param queryMetrics      Query metrics.
+     * @param matchedViewsCount Found views count.
+     * @param startNanos        Find start time, in nanoseconds.
+     */
+    private void reportMetrics(final QueryMetrics queryMetrics, final int matchedViewsCount, final long startNanos) {
+        queryMetrics.setResult(matchedViewsCount, System.nanoTime() - startNanos);
+        queryMetrics.setFilterCounts(countingViewFilters, (AggregatedViewFilters) countedViewFilter);
+        queryMetricsListener.onQueryMetrics(queryMetrics);
+    }
+
+    /**
+     * Finds all views, and adds them to a list.
+     *
+     * @param views        List where found views will be added.
+     * @param viewFilter   Planned view filter, counting evaluations or not.
+     * @param queryMetrics Query metrics to fill. NULL if metrics are not reported.
+     * @return Views list.
+     */
+    private List<View> find(final List<View> views, final ViewFilter viewFilter, final QueryMetrics queryMetrics) {
+        final int firstViewIndex = views.size();
+
+        // - Get views from cache if possible.
+        if (viewsResultCache != null && viewsResultCache.get(views)) {
+            if (queryMetrics != null) {
+                queryMetrics.setAnsweredFromCache();
+            }
+            return views;
+        }
+
+        // - Add all views from nested compiled view query, measuring them with this query if necessary.
+        if (nestedCompiledViewQuery != null) {
+            if (queryMetrics != null) {
+                nestedCompiledViewQuery.find(views, nestedCompiledViewQuery.viewFilter, queryMetrics);
+            } else {
+                nestedCompiledViewQuery.find(views);
+            }
+        }
+
+        // - For each root view.
+        for (final ViewGroup rootView : rootViews) {
+            // - Include root view to views find if necessary.
+            if (includeRootView) {
+                views.add(rootView);
+            }
+
+            // - Find all childs from root view's index if possible.
+            final ViewsIndex viewsIndex = indexableViewFilter != null ? ViewsIndex.of(rootView) : null;
+            if (viewsIndex != null && viewsIndex.findChilds(views, viewFilter, indexableViewFilter, addChildsFromFilteredGroupViews)) {
+                if (queryMetrics != null) {
+                    queryMetrics.setAnsweredFromIndex();
+                }
+                continue;
+            }
+
+            // - Otherwise, traverse all childs.
+            TraceSections.begin("ViewsFinder.traverse");
+            final ViewsTraversal obtainedViewsTraversal = obtainViewsTraversal();
+            try {
+                ViewsHelper.findChilds(obtainedViewsTraversal, rootView, views, viewFilter, addChildsFromFilteredGroupViews);
+                if (queryMetrics != null) {
+                    queryMetrics.addTraversal(obtainedViewsTraversal.getVisitedViewsCount(), obtainedViewsTraversal.getDescendedGroupViewsCount());
+                }
+            } finally {
+                recycleViewsTraversal(obtainedViewsTraversal);
+                TraceSections.end();
+            }
+        }
+
+        // - Sort views if necessary.
+        final List<View> foundViews = firstViewIndex == 0 ? views : views.subList(firstViewIndex, views.size());
+        sort(foundViews);
+
+        // - Cache views if necessary.
+        if (viewsResultCache != null) {
+            viewsResultCache.put(foundViews);
+        }
+
+        return views;
+    }
+
+    /**
+     * Sorts found views if they have to be ordered.
+     *
+     * @param foundViews Found views.
+     */
+    private void sort(final List<View> foundViews) {
+        if (viewComparator != null) {
+            TraceSections.begin("ViewsFinder.sort");
+            try {
+                Collections.sort(foundViews, viewComparator);
+            } finally {
+                TraceSections.end();
+            }
+        }
+    }
+
+    /**
+     * Captures a snapshot of root views hierarchies, nested queries' ones included. Must be called on main thread.
+     *
+     * @return Views snapshot.
+     */
+    public ViewsSnapshot snapshot() {
+        // - Gather root views of all nested queries.
+        final List<ViewGroup> allRootViews = new ArrayList<>();
+        for (CompiledViewQuery compiledViewQuery = this; compiledViewQuery != null; compiledViewQuery = compiledViewQuery.nestedCompiledViewQuery) {
+            Collections.addAll(allRootViews, compiledViewQuery.rootViews);
+        }
+        return ViewsSnapshot.capture(allRootViews.toArray(new ViewGroup[allRootViews.size()]));
+    }
+
+    /**
+     * Finds and lists all views of a snapshot. Can be called from any thread, while views are not used.
+     * Neither cache nor index is used. Custom filters and comparator are run on calling thread.
+     *
+     * @param viewsSnapshot Views snapshot, which must contain all root views.
+     * @return Found views.
+     */
+    public List<View> find(@NonNull final ViewsSnapshot viewsSnapshot) {
+        return find(viewsSnapshot, new ArrayList<View>());
+    }
+
+    /**
+     * Finds all views of a snapshot, and adds them to a list. Can be called from any thread, while views are not used.
+     * Neither cache nor index is used. Custom filters and comparator are run on calling thread.
+     *
+     * @param viewsSnapshot Views snapshot, which must contain all root views.
+     * @param views         List where found views will be added.
+     * @return Views list.
+     */
+    public List<View> find(@NonNull final ViewsSnapshot viewsSnapshot, @NonNull final List<View> views) {
+        FunctionUtils.checkParameterIsNotNull("viewsSnapshot", viewsSnapshot);
+        FunctionUtils.checkParameterIsNotNull("views", views);
+        return find(viewsSnapshot, views, null);
+    }
+
+    /**
+     * Finds and lists all views of a snapshot, evaluating filters in parallel with a fork-join pool. Requires API 21.
+     * Views are found in the same order. Custom filters must be thread-safe, and comparator is run on calling thread.
+     *
+     * @param viewsSnapshot Views snapshot, which must contain all root views.
+     * @param forkJoinPool  Fork-join pool evaluating filters.
+     * @return Found views.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public List<View> findInParallel(@NonNull final ViewsSnapshot viewsSnapshot, @NonNull final ForkJoinPool forkJoinPool) {
+        FunctionUtils.checkParameterIsNotNull("viewsSnapshot", viewsSnapshot);
+        FunctionUtils.checkParameterIsNotNull("forkJoinPool", forkJoinPool);
+        return find(viewsSnapshot, new ArrayList<View>(), forkJoinPool);
+    }
+
+    /**
+     * Finds all views of a snapshot, and adds them to a list.
+     *
+     * @param viewsSnapshot Views snapshot, which must contain all root views.
+     * @param views         List where found views will be added.
+     * @param forkJoinPool  Fork-join pool evaluating filters in parallel. NULL to evaluate them on calling thread.
+     * @return Views list.
+     */
+    private List<View> find(final ViewsSnapshot viewsSnapshot, final List<View> views, final Executor forkJoinPool) {
+        final int firstViewIndex = views.size();
+
+        // - Add all views from nested compiled view query.
+        if (nestedCompiledViewQuery != null) {
+            nestedCompiledViewQuery.find(viewsSnapshot, views, forkJoinPool);
+        }
+
+        // - For each root view.
+        for (final ViewGroup rootView : rootViews) {
+            // - Include root view to views find if necessary.
+            if (includeRootView) {
+                views.add(rootView);
+            }
+            TraceSections.begin("ViewsFinder.filter");
+            try {
+                viewsSnapshot.getFlatViewTree().findChilds(rootView, views, viewFilter, addChildsFromFilteredGroupViews, forkJoinPool);
+            } finally {
+                TraceSections.end();
+            }
+        }
+
+        // - Sort views if necessary.
+        sort(firstViewIndex == 0 ? views : views.subList(firstViewIndex, views.size()));
+
+        return views;
+    }
+
+    /**
+     * Finds views off main thread. Hierarchies are captured on calling thread, which must be main thread,
+     * then filters and comparator are evaluated by executor, and callback is called on main thread.
+     * If executor is a fork-join pool, filters are evaluated in parallel by its threads, so custom filters must be thread-safe.
+     * Views must not be changed by anyone else until callback is called.
+     *
+     * @param executor      Executor evaluating filters.
+     * @param viewsCallback Views callback. Can be NULL.
+     * @return Future found views.
+     */
+    public Future<List<View>> findAsync(@NonNull final Executor executor, @Nullable final ViewsCallback viewsCallback) {
+        FunctionUtils.checkParameterIsNotNull("executor", executor);
+
+        // - Capture hierarchies now, on main thread.
+        final ViewsSnapshot viewsSnapshot = snapshot();
+        final Handler mainHandler = viewsCallback != null ? new Handler(Looper.getMainLooper()) : null;
+        final Executor forkJoinPool = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && ParallelFilterTask.isForkJoinPool(executor) ? executor : null;
+
+        // - Evaluate filters with executor, then call back on main thread.
+        final FutureTask<List<View>> findTask = new FutureTask<>(new Callable<List<View>>() {
+            @Override
+            public List<View> call() {
+                final List<View> views = find(viewsSnapshot, new ArrayList<View>(), forkJoinPool);
+                if (mainHandler != null) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            viewsCallback.onViewsFound(views);
+                        }
+                    });
+                }
+                return views;
+            }
+        });
+        executor.execute(findTask);
+        return findTask;
+    }
+
+    /**
+     * Gets root views of a query and of all its nested queries, without duplicates.
+     *
+     * @param nestedCompiledViewQuery Nested compiled view query. Can be NULL.
+     * @param rootViews               Root views.
+     * @return All root views.
+     */
+    private static ViewGroup[] getAllRootViews(final CompiledViewQuery nestedCompiledViewQuery, @NonNull final ViewGroup[] rootViews) {
+        final List<ViewGroup> allRootViews = new ArrayList<>();
+        CompiledViewQuery compiledViewQuery = nestedCompiledViewQuery;
+        ViewGroup[] queryRootViews = rootViews;
+        while (queryRootViews != null) {
+            for (final ViewGroup rootView : queryRootViews) {
+                if (!allRootViews.contains(rootView)) {
+                    allRootViews.add(rootView);
+                }
+            }
+            queryRootViews = compiledViewQuery != null ? compiledViewQuery.rootViews : null;
+            compiledViewQuery = compiledViewQuery != null ? compiledViewQuery.nestedCompiledViewQuery : null;
+        }
+        return allRootViews.toArray(new ViewGroup[allRootViews.size()]);
+    }
+
+    /**
+     * Invalidates cached views, for instance after tags or visibilities have been changed without any layout.
+     * Cache is already invalidated when views are added, removed or laid out.
+     */
+    public void invalidateCache() {
+        if (viewsResultCache != null) {
+            viewsResultCache.invalidate();
+        }
+    }
+
+    /**
+     * Gets count of finds answered from cache.
+     *
+     * @return Cache hit count, 0 if results are not cached.
+     */
+    public int getCacheHitCount() {
+        return viewsResultCache != null ? viewsResultCache.getHitCount() : 0;
+    }
+
+    /**
+     * Gets count of finds that could not be answered from cache.
+     *
+     * @return Cache miss count, 0 if results are not cached.
+     */
+    public int getCacheMissCount() {
+        return viewsResultCache != null ? viewsResultCache.getMissCount() : 0;
+    }
+
+    /**
+     * Releases cache : invalidates it and stops observing root views hierarchies, until next find.
+     */
+    public void release() {
+        if (viewsResultCache != null) {
+            viewsResultCache.release();
+        }
+    }
+
+    /**
+     * Iterates all found views.
+     *
+     * @param viewIteration View iteration.
+     */
+    public void forEach(@NonNull final ViewIteration viewIteration) {
+        FunctionUtils.checkParameterIsNotNull("viewIteration", viewIteration);
+
+        // - Reuse iterated views list, unless an iteration is already in progress.
+        final boolean reuseIteratedViews = !iteratingViews;
+        final List<View> views = reuseIteratedViews ? iteratedViews : new ArrayList<View>();
+        iteratingViews = true;
+        try {
+            find(views);
+            final int viewCount = views.size();
+            for (int viewIndex = 0; viewIndex < viewCount; viewIndex++) {
+                viewIteration.onView(views.get(viewIndex), viewIndex, viewCount);
+            }
+        } finally {
+            views.clear();
+            if (reuseIteratedViews) {
+                iteratingViews = false;
+            }
+        }
+    }
+
+    /**
+     * Visits views while they are found, without listing them first.
+     * If views are ordered, they all have to be found before the first one is visited.
+     * Metrics of a visit include visitor's own time.
+     *
+     * @param viewVisitor View visitor.
+     * @return Visited views count.
+     */
+    public int visit(@NonNull final ViewVisitor viewVisitor) {
+        FunctionUtils.checkParameterIsNotNull("viewVisitor", viewVisitor);
+        TraceSections.begin("ViewsFinder.visit");
+        try {
+            if (queryMetricsListener == null) {
+                return Math.abs(visit(viewVisitor, 0, viewFilter, null));
+            }
+
+            // - Measure visit.
+            final QueryMetrics queryMetrics = startMetrics();
+            final long startNanos = System.nanoTime();
+            final int visitedViewsCount = Math.abs(visit(viewVisitor, 0, countedViewFilter, queryMetrics));
+            reportMetrics(queryMetrics, visitedViewsCount, startNanos);
+            return visitedViewsCount;
+        } finally {
+            TraceSections.end();
+        }
+    }
+
+    /**
+     * Visits views while they are found.
+     *
+     * @param viewVisitor    View visitor.
+     * @param firstViewIndex Index of first visited view.
+     * @param viewFilter     Planned view filter, counting evaluations or not.
+     * @param queryMetrics   Query metrics to fill. NULL if metrics are not reported.
+     * @return Index of next view to visit, or its opposite if visit has been stopped.
+     */
+    private int visit(final ViewVisitor viewVisitor, final int firstViewIndex, final ViewFilter viewFilter, final QueryMetrics queryMetrics) {
+        // - Ordered views can't be visited while they are found.
+        if (viewComparator != null) {
+            return visit(viewVisitor, firstViewIndex, find(new ArrayList<View>(), viewFilter, queryMetrics));
+        }
+
+        // - Visit views from nested compiled view query first, measuring them with this query if necessary.
+        int viewIndex = firstViewIndex;
+        if (nestedCompiledViewQuery != null) {
+            viewIndex = nestedCompiledViewQuery.visit(viewVisitor, viewIndex, nestedCompiledViewQuery.viewFilter, queryMetrics);
+            if (viewIndex < 0) {
+                return viewIndex;
+            }
+        }
+
+        for (final ViewGroup rootView : rootViews) {
+            // - Visit root view if necessary.
+            if (includeRootView && !viewVisitor.onView(rootView, viewIndex++)) {
+                return -viewIndex;
+            }
+
+            // - Visit childs from root view's index if possible.
+            final ViewsIndex viewsIndex = indexableViewFilter != null ? ViewsIndex.of(rootView) : null;
+            if (viewsIndex != null) {
+                final List<View> indexedViews = new ArrayList<>();
+                if (viewsIndex.findChilds(indexedViews, viewFilter, indexableViewFilter, addChildsFromFilteredGroupViews)) {
+                    if (queryMetrics != null) {
+                        queryMetrics.setAnsweredFromIndex();
+                    }
+                    viewIndex = visit(viewVisitor, viewIndex, indexedViews);
+                    if (viewIndex < 0) {
+                        return viewIndex;
+                    }
+                    continue;
+                }
+            }
+
+            // - Visit childs while they are found.
+            final ViewsTraversal obtainedViewsTraversal = obtainViewsTraversal();
+            try {
+                obtainedViewsTraversal.reset(rootView, viewFilter, addChildsFromFilteredGroupViews);
+                View childView;
+                while ((childView = obtainedViewsTraversal.next()) != null) {
+                    if (!viewVisitor.onView(childView, viewIndex++)) {
+                        return -viewIndex;
+                    }
+                }
+            } finally {
+                if (queryMetrics != null) {
+                    queryMetrics.addTraversal(obtainedViewsTraversal.getVisitedViewsCount(), obtainedViewsTraversal.getDescendedGroupViewsCount());
+                }
+                recycleViewsTraversal(obtainedViewsTraversal);
+            }
+        }
+        return viewIndex;
+    }
+
+    /**
+     * Visits views of a list.
+     *
+     * @param viewVisitor    View visitor.
+     * @param firstViewIndex Index of first visited view.
+     * @param views          Views to visit.
+     * @return Index of next view to visit, or its opposite if visit has been stopped.
+     */
+    private static int visit(final ViewVisitor viewVisitor, final int firstViewIndex, final List<View> views) {
+        int viewIndex = firstViewIndex;
+        final int viewsCount = views.size();
+        for (int listIndex = 0; listIndex < viewsCount; listIndex++) {
+            if (!viewVisitor.onView(views.get(listIndex), viewIndex++)) {
+                return -viewIndex;
+            }
+        }
+        return viewIndex;
+    }
+
+    /**
+     * Iterates lazily all found views. Views are found while iterating, so an iteration can stop without walking all views.
+     * If views are ordered, they all have to be found before the first one is returned.
+     * Since an iteration has no known end, it is neither measured nor traced, unlike {@link #visit(ViewVisitor)}.
+     *
+     * @return Views iterator.
+     */
+    @Override
+    public Iterator<View> iterator() {
+        // - Ordered views can't be found lazily.
+        if (viewComparator != null) {
+            return find().iterator();
+        }
+
+        return new ViewsIterator(nestedCompiledViewQuery != null ? nestedCompiledViewQuery.iterator() : null, rootViews, viewFilter, includeRootView, addChildsFromFilteredGroupViews);
+    }
+
+    /**
+     * Obtains views traversal. Reused one is returned unless it is already in use, by a visitor calling this query for instance.
+     *
+     * @return Views traversal.
+     */
+    private ViewsTraversal obtainViewsTraversal() {
+        if (viewsTraversalInUse) {
+            return new ViewsTraversal();
+        }
+        viewsTraversalInUse = true;
+        return viewsTraversal;
+    }
+
+    /**
+     * Recycles an obtained views traversal.
+     *
+     * @param obtainedViewsTraversal Obtained views traversal.
+     */
+    private void recycleViewsTraversal(final ViewsTraversal obtainedViewsTraversal) {
+        obtainedViewsTraversal.clear();
+        if (obtainedViewsTraversal == viewsTraversal) {
+            viewsTraversalInUse = false;
+        }
+    }
+
+    /**
+     * Finds the first view. Stops as soon as it is found.
+     *
+     * @return First found view, or NULL if there is none.
+     */
+    public View findFirst() {
+        final View[] firstView = new View[1];
+        visit(new ViewVisitor() {
+            @Override
+            public boolean onView(final View view, final int viewIndex) {
+                firstView[0] = view;
+                return false;
+            }
+        });
+        return firstView[0];
+    }
+
+    /**
+     * Checks if any view is found. Stops as soon as a view is found.
+     *
+     * @return TRUE if at least one view is found.
+     */
+    public boolean any() {
+        return findFirst() != null;
+    }
+
+    /**
+     * Counts found views, without listing them.
+     *
+     * @return Found views count.
+     */
+    public int count() {
+        return visit(new ViewVisitor() {
+            @Override
+            public boolean onView(final View view, final int viewIndex) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Finds and lists first found views. Stops as soon as enough views are found.
+     *
+     * @param maxViewsCount Maximum views count.
+     * @return First found views.
+     */
+    public List<View> limit(final int maxViewsCount) {
+        if (maxViewsCount < 0) {
+            throw new IllegalArgumentException("maxViewsCount cannot be negative.");
+        }
+        final List<View> views = new ArrayList<>();
+        if (maxViewsCount > 0) {
+            visit(new ViewVisitor() {
+                @Override
+                public boolean onView(final View view, final int viewIndex) {
+                    views.add(view);
+                    return views.size() < maxViewsCount;
+                }
+            });
+        }
+        return views;
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import com.jaouan.viewsfrom.filters.AbstractRegexViewFilter;
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.ComplementedViewFilter;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+/**
+ * View filter counting evaluations and rejections of the filter it wraps.
+ */
+class CountingViewFilter implements ViewFilter {
+
+    /**
+     * Counted view filter.
+     */
+    private final ViewFilter viewFilter;
+
+    /**
+     * Evaluations count.
+     */
+    private int evaluationsCount;
+
+    /**
+     * Rejections count.
+     */
+    private int rejectionsCount;
+
+    /**
+     * Regex view filter whose match results cache is counted, complemented or not. NULL if counted filter is not a regex one.
+     */
+    private final AbstractRegexViewFilter regexViewFilter;
+
+    /**
+     * Regex view filter's cache hits count at last reset.
+     */
+    private long cacheHitsCountAtReset;
+
+    /**
+     * Regex view filter's cache misses count at last reset.
+     */
+    private long cacheMissesCountAtReset;
+
+    /**
+     * CountingViewFilter's constructor.
+     *
+     * @param viewFilter Counted view filter.
+     */
+    private CountingViewFilter(@NonNull final ViewFilter viewFilter) {
+        this.viewFilter = viewFilter;
+        final ViewFilter uncomplementedViewFilter = viewFilter instanceof ComplementedViewFilter ? ((ComplementedViewFilter) viewFilter).getViewFilter() : viewFilter;
+        this.regexViewFilter = uncomplementedViewFilter instanceof AbstractRegexViewFilter ? (AbstractRegexViewFilter) uncomplementedViewFilter : null;
+    }
+
+    /**
+     * Wraps a view filter. Branch view filters stay branch view filters.
+     *
+     * @param viewFilter View filter.
+     * @return Counting view filter.
+     */
+    static CountingViewFilter wrap(@NonNull final ViewFilter viewFilter) {
+        return viewFilter instanceof BranchViewFilter ? new CountingBranchViewFilter((BranchViewFilter) viewFilter) : new CountingViewFilter(viewFilter);
+    }
+
+    @Override
+    public boolean filter(final View view) {
+        evaluationsCount++;
+        if (!viewFilter.filter(view)) {
+            rejectionsCount++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Resets counts.
+     */
+    void reset() {
+        evaluationsCount = 0;
+        rejectionsCount = 0;
+        if (regexViewFilter != null) {
+            cacheHitsCountAtReset = regexViewFilter.getCacheHitsCount();
+            cacheMissesCountAtReset = regexViewFilter.getCacheMissesCount();
+        }
+    }
+
+    /**
+     * Gets counted view filter.
+     *
+     * @return Counted view filter.
+     */
+    ViewFilter getViewFilter() {
+        return viewFilter;
+    }
+
+    /**
+     * Gets evaluations count.
+     *
+     * @return Evaluations count.
+     */
+    int getEvaluationsCount() {
+        return evaluationsCount;
+    }
+
+    /**
+     * Gets rejections count.
+     *
+     * @return Rejections count.
+     */
+    int getRejectionsCount() {
+        return rejectionsCount;
+    }
+
+    /**
+     * Gets match results cache hits count since last reset.
+     *
+     * @return Cache hits count, 0 if counted filter is not a regex one.
+     */
+    long getCacheHitsCount() {
+        return regexViewFilter != null ? regexViewFilter.getCacheHitsCount() - cacheHitsCountAtReset : 0;
+    }
+
+    /**
+     * Gets match results cache misses count since last reset.
+     *
+     * @return Cache misses count, 0 if counted filter is not a regex one.
+     */
+    long getCacheMissesCount() {
+        return regexViewFilter != null ? regexViewFilter.getCacheMissesCount() - cacheMissesCountAtReset : 0;
+    }
+
+    /**
+     * Counting view filter of a branch view filter.
+     */
+    private static final class CountingBranchViewFilter extends CountingViewFilter implements BranchViewFilter {
+
+        /**
+         * Counted branch view filter.
+         */
+        private final BranchViewFilter branchViewFilter;
+
+        /**
+         * CountingBranchViewFilter's constructor.
+         *
+         * @param branchViewFilter Counted branch view filter.
+         */
+        private CountingBranchViewFilter(@NonNull final BranchViewFilter branchViewFilter) {
+            super(branchViewFilter);
+            this.branchViewFilter = branchViewFilter;
+        }
+
+        @Override
+        public boolean filterBranch(final View view) {
+            return branchViewFilter.filterBranch(view);
+        }
+
+    }
+
+}
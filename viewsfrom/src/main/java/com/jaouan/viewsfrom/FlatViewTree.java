@@ -0,0 +1,347 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.ViewAttributes;
+import com.jaouan.viewsfrom.filters.ViewAttributesFilter;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Flat view tree : views hierarchies stored in pre-order as arrays of primitives, one per attribute.
+ * Views are walked with index loops, and branches are skipped by jumping to their end, without any call to views.
+ * Once built, it is never modified, so it can be read from any thread.
+ */
+final class FlatViewTree implements ViewAttributes {
+
+    /**
+     * Filter result of an accepted view.
+     */
+    static final byte FILTER_ACCEPTED = 1;
+
+    /**
+     * Filter result of a view whose whole branch is rejected.
+     */
+    static final byte FILTER_BRANCH_REJECTED = 2;
+
+    /**
+     * Initial views capacity.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Root views.
+     */
+    private final ViewGroup[] rootViews;
+
+    /**
+     * Indexes of root views.
+     */
+    private final int[] rootViewIndexes;
+
+    /**
+     * Views count.
+     */
+    private int viewsCount;
+
+    /**
+     * Views.
+     */
+    private View[] views = new View[INITIAL_CAPACITY];
+
+    /**
+     * Views parent indexes, -1 for root views.
+     */
+    private int[] parentIndexes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Views branch ends : index following the last descendant of each view.
+     */
+    private int[] branchEnds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Views ids.
+     */
+    private int[] ids = new int[INITIAL_CAPACITY];
+
+    /**
+     * Views tags.
+     */
+    private Object[] tags = new Object[INITIAL_CAPACITY];
+
+    /**
+     * Views class indexes, in classes.
+     */
+    private int[] classIndexes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Views visibilities. VISIBLE, INVISIBLE and GONE all fit in a byte.
+     */
+    private byte[] visibilities = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Distinct classes of views.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Class<? extends View>[] classes = new Class[16];
+
+    /**
+     * Distinct classes count.
+     */
+    private int classesCount;
+
+    /**
+     * FlatViewTree's constructor.
+     *
+     * @param rootViews Root views, without duplicates.
+     */
+    private FlatViewTree(@NonNull final ViewGroup[] rootViews) {
+        this.rootViews = rootViews;
+        this.rootViewIndexes = new int[rootViews.length];
+    }
+
+    /**
+     * Builds the flat view tree of root views hierarchies. Must be called on main thread.
+     *
+     * @param rootViews Root views, without duplicates.
+     * @return Flat view tree.
+     */
+    static FlatViewTree build(@NonNull final ViewGroup[] rootViews) {
+        final FlatViewTree flatViewTree = new FlatViewTree(rootViews);
+        final Map<Class<? extends View>, Integer> classIndexesByClass = new HashMap<>();
+        for (int rootIndex = 0; rootIndex < rootViews.length; rootIndex++) {
+            flatViewTree.rootViewIndexes[rootIndex] = flatViewTree.viewsCount;
+            flatViewTree.addBranch(rootViews[rootIndex], classIndexesByClass);
+        }
+        return flatViewTree;
+    }
+
+    /**
+     * Adds a branch, in pre-order.
+     *
+     * @param rootView            Branch root view.
+     * @param classIndexesByClass Class indexes by class.
+     */
+    private void addBranch(final ViewGroup rootView, final Map<Class<? extends View>, Integer> classIndexesByClass) {
+        // - Walk down and up the branch without recursion, so deep hierarchies don't overflow the stack.
+        final int rootViewIndex = add(rootView, -1, classIndexesByClass);
+        int parentIndex = rootViewIndex;
+        int childPosition = 0;
+        int[] childPositions = new int[16];
+        int depth = 0;
+        while (parentIndex >= rootViewIndex) {
+            final ViewGroup parentView = (ViewGroup) views[parentIndex];
+            if (childPosition < parentView.getChildCount()) {
+                final View childView = parentView.getChildAt(childPosition++);
+                if (childView == null) {
+                    continue;
+                }
+                final int childIndex = add(childView, parentIndex, classIndexesByClass);
+                if (childView instanceof ViewGroup) {
+                    // - Go down to child's childs.
+                    if (depth == childPositions.length) {
+                        childPositions = Arrays.copyOf(childPositions, depth * 2);
+                    }
+                    childPositions[depth++] = childPosition;
+                    parentIndex = childIndex;
+                    childPosition = 0;
+                }
+            } else {
+                // - Go up to parent.
+                branchEnds[parentIndex] = viewsCount;
+                parentIndex = parentIndexes[parentIndex];
+                childPosition = depth > 0 ? childPositions[--depth] : 0;
+            }
+        }
+    }
+
+    /**
+     * Adds a view.
+     *
+     * @param view                View.
+     * @param parentIndex         Parent index.
+     * @param classIndexesByClass Class indexes by class.
+     * @return View index.
+     */
+    private int add(final View view, final int parentIndex, final Map<Class<? extends View>, Integer> classIndexesByClass) {
+        if (viewsCount == views.length) {
+            final int capacity = viewsCount * 2;
+            views = Arrays.copyOf(views, capacity);
+            parentIndexes = Arrays.copyOf(parentIndexes, capacity);
+            branchEnds = Arrays.copyOf(branchEnds, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            tags = Arrays.copyOf(tags, capacity);
+            classIndexes = Arrays.copyOf(classIndexes, capacity);
+            visibilities = Arrays.copyOf(visibilities, capacity);
+        }
+        final int viewIndex = viewsCount++;
+        views[viewIndex] = view;
+        parentIndexes[viewIndex] = parentIndex;
+        branchEnds[viewIndex] = viewIndex + 1;
+        ids[viewIndex] = view.getId();
+        tags[viewIndex] = view.getTag();
+        classIndexes[viewIndex] = getClassIndex(view.getClass(), classIndexesByClass);
+        visibilities[viewIndex] = (byte) view.getVisibility();
+        return viewIndex;
+    }
+
+    /**
+     * Gets index of a class, adding it to classes if necessary.
+     *
+     * @param viewClass           View class.
+     * @param classIndexesByClass Class indexes by class.
+     * @return Class index.
+     */
+    private int getClassIndex(final Class<? extends View> viewClass, final Map<Class<? extends View>, Integer> classIndexesByClass) {
+        final Integer classIndex = classIndexesByClass.get(viewClass);
+        if (classIndex != null) {
+            return classIndex;
+        }
+        if (classesCount == classes.length) {
+            classes = Arrays.copyOf(classes, classesCount * 2);
+        }
+        classes[classesCount] = viewClass;
+        classIndexesByClass.put(viewClass, classesCount);
+        return classesCount++;
+    }
+
+    /**
+     * Finds childs of a root view, in pre-order, as a views traversal would do.
+     * When a fork-join pool is given, filters are first evaluated on all views of the branch by pool's threads.
+     *
+     * @param rootView                        Root view.
+     * @param views                           Views where found childs will be added.
+     * @param viewFilter                      View filter.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     * @param forkJoinPool                    Fork-join pool evaluating filters in parallel. NULL to evaluate them on calling thread, while walking.
+     */
+    void findChilds(@NonNull final ViewGroup rootView, @NonNull final List<View> views, @NonNull final ViewFilter viewFilter, final boolean addChildsFromFilteredGroupViews, final Executor forkJoinPool) {
+        final int rootViewIndex = getRootViewIndex(rootView);
+        if (rootViewIndex < 0) {
+            throw new IllegalArgumentException("Root view has not been captured in this snapshot.");
+        }
+        final int branchEnd = branchEnds[rootViewIndex];
+        final BranchViewFilter branchViewFilter = ViewsHelper.getBranchViewFilter(viewFilter);
+
+        // - Skip the whole hierarchy if root view's branch is rejected.
+        if (branchViewFilter != null && !filterBranch(viewFilter, branchViewFilter, rootViewIndex)) {
+            return;
+        }
+
+        // - Evaluate filters in parallel if possible.
+        final byte[] filterResults = forkJoinPool != null
+                ? ParallelFilterTask.filter(forkJoinPool, this, viewFilter, branchViewFilter, rootViewIndex + 1, branchEnd)
+                : null;
+
+        // - Walk the branch, jumping over rejected branches.
+        int viewIndex = rootViewIndex + 1;
+        while (viewIndex < branchEnd) {
+            final byte filterResult = filterResults != null ? filterResults[viewIndex - rootViewIndex - 1] : filter(viewFilter, branchViewFilter, viewIndex);
+            if ((filterResult & FILTER_BRANCH_REJECTED) != 0) {
+                viewIndex = branchEnds[viewIndex];
+                continue;
+            }
+            final boolean accepted = (filterResult & FILTER_ACCEPTED) != 0;
+            if (accepted) {
+                views.add(this.views[viewIndex]);
+            }
+            viewIndex = accepted || addChildsFromFilteredGroupViews ? viewIndex + 1 : branchEnds[viewIndex];
+        }
+    }
+
+    /**
+     * Evaluates filters on a view.
+     *
+     * @param viewFilter       View filter.
+     * @param branchViewFilter Branch view filter. Can be NULL.
+     * @param viewIndex        View index.
+     * @return {@see #FILTER_BRANCH_REJECTED} if view's branch is rejected, else {@see #FILTER_ACCEPTED} if view is accepted, else 0.
+     */
+    byte filter(@NonNull final ViewFilter viewFilter, final BranchViewFilter branchViewFilter, final int viewIndex) {
+        if (branchViewFilter != null && !filterBranch(viewFilter, branchViewFilter, viewIndex)) {
+            return FILTER_BRANCH_REJECTED;
+        }
+        final boolean accepted = viewFilter instanceof ViewAttributesFilter ? ((ViewAttributesFilter) viewFilter).filter(this, viewIndex) : viewFilter.filter(views[viewIndex]);
+        return accepted ? FILTER_ACCEPTED : 0;
+    }
+
+    /**
+     * Filters a view's branch.
+     *
+     * @param viewFilter       View filter.
+     * @param branchViewFilter Branch view filter.
+     * @param viewIndex        View index.
+     * @return FALSE if the whole branch can be skipped.
+     */
+    private boolean filterBranch(final ViewFilter viewFilter, final BranchViewFilter branchViewFilter, final int viewIndex) {
+        return viewFilter instanceof ViewAttributesFilter ? ((ViewAttributesFilter) viewFilter).filterBranch(this, viewIndex) : branchViewFilter.filterBranch(views[viewIndex]);
+    }
+
+    /**
+     * Gets index of a root view in tree.
+     *
+     * @param rootView Root view.
+     * @return Root view's index, or -1 if it is not a root view of this tree.
+     */
+    int getRootViewIndex(@NonNull final ViewGroup rootView) {
+        for (int rootIndex = 0; rootIndex < rootViews.length; rootIndex++) {
+            if (rootViews[rootIndex] == rootView) {
+                return rootViewIndexes[rootIndex];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets views count.
+     *
+     * @return Views count.
+     */
+    int getViewsCount() {
+        return viewsCount;
+    }
+
+    /**
+     * Gets view's parent index.
+     *
+     * @param viewIndex View index.
+     * @return Parent index, or -1 for root views.
+     */
+    int getParentIndex(final int viewIndex) {
+        return parentIndexes[viewIndex];
+    }
+
+    @Override
+    public View getView(final int viewIndex) {
+        return views[viewIndex];
+    }
+
+    @Override
+    public int getId(final int viewIndex) {
+        return ids[viewIndex];
+    }
+
+    @Override
+    public Object getTag(final int viewIndex) {
+        return tags[viewIndex];
+    }
+
+    @Override
+    public Class<? extends View> getType(final int viewIndex) {
+        return classes[classIndexes[viewIndex]];
+    }
+
+    @Override
+    public int getVisibility(final int viewIndex) {
+        return visibilities[viewIndex];
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.jaouan.viewsfrom;
+
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * Frame ticker, that calls a listener on next frame.
+ * It is backed by Choreographer from API 16, and by main thread's handler before.
+ */
+abstract class FrameTicker {
+
+    /**
+     * Frame listener.
+     */
+    interface FrameListener {
+
+        /**
+         * Called on a frame.
+         *
+         * @param frameTimeNanos Frame time, in nanoseconds.
+         */
+        void onFrame(long frameTimeNanos);
+
+    }
+
+    /**
+     * Creates a frame ticker for current API level. It must be called from main thread.
+     *
+     * @return Frame ticker.
+     */
+    static FrameTicker create() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new ChoreographerFrameTicker();
+        }
+        return new HandlerFrameTicker();
+    }
+
+    /**
+     * Posts a call of a frame listener on next frame, if not already posted.
+     *
+     * @param frameListener Frame listener.
+     */
+    abstract void postFrame(@NonNull FrameListener frameListener);
+
+    /**
+     * Cancels posted call of frame listener.
+     */
+    abstract void cancel();
+
+    /**
+     * Frame ticker backed by Choreographer.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class ChoreographerFrameTicker extends FrameTicker implements Choreographer.FrameCallback {
+
+        /**
+         * Choreographer of main thread.
+         */
+        private final Choreographer choreographer = Choreographer.getInstance();
+
+        /**
+         * Posted frame listener. NULL if no frame is posted.
+         */
+        private FrameListener frameListener;
+
+        @Override
+        void postFrame(@NonNull final FrameListener frameListener) {
+            if (this.frameListener == null) {
+                this.frameListener = frameListener;
+                choreographer.postFrameCallback(this);
+            }
+        }
+
+        @Override
+        void cancel() {
+            if (frameListener != null) {
+                frameListener = null;
+                choreographer.removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(final long frameTimeNanos) {
+            final FrameListener postedFrameListener = frameListener;
+            frameListener = null;
+            postedFrameListener.onFrame(frameTimeNanos);
+        }
+
+    }
+
+    /**
+     * Frame ticker backed by main thread's handler, posting at animators' frame rate.
+     */
+    private static final class HandlerFrameTicker extends FrameTicker implements Runnable {
+
+        /**
+         * Main thread's handler.
+         */
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        /**
+         * Posted frame listener. NULL if no frame is posted.
+         */
+        private FrameListener frameListener;
+
+        @Override
+        void postFrame(@NonNull final FrameListener frameListener) {
+            if (this.frameListener == null) {
+                this.frameListener = frameListener;
+                handler.postDelayed(this, ValueAnimator.getFrameDelay());
+            }
+        }
+
+        @Override
+        void cancel() {
+            if (frameListener != null) {
+                frameListener = null;
+                handler.removeCallbacks(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            final FrameListener postedFrameListener = frameListener;
+            frameListener = null;
+            postedFrameListener.onFrame(System.nanoTime());
+        }
+
+    }
+
+}
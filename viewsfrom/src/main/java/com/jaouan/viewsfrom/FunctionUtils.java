@@ -65,4 +65,16 @@ final class FunctionUtils {
         }
     }
 
+    /**
+     * Checks that a parameter is not negative.
+     *
+     * @param parameterName  Parameter name.
+     * @param parameterValue Parameter value.
+     */
+    static void checkParameterIsNotNegative(final String parameterName, final long parameterValue) {
+        if (parameterValue < 0) {
+            throw new IllegalArgumentException(parameterName + " cannot be negative.");
+        }
+    }
+
 }
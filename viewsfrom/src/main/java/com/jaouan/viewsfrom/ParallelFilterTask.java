@@ -0,0 +1,130 @@
+package com.jaouan.viewsfrom;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join task evaluating filters on a range of flat view tree views, split across pool's threads.
+ * Each view gets its filter results, so that views can then be walked in pre-order without evaluating filters again.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+final class ParallelFilterTask extends RecursiveAction {
+
+    /**
+     * Serial version UID, since fork-join tasks are serializable.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Views count under which a range is evaluated without being split.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    /**
+     * Flat view tree.
+     */
+    private final FlatViewTree flatViewTree;
+
+    /**
+     * View filter.
+     */
+    private final ViewFilter viewFilter;
+
+    /**
+     * Branch view filter. NULL if view filter never rejects whole branches.
+     */
+    private final BranchViewFilter branchViewFilter;
+
+    /**
+     * Filter results, from first view of evaluated range.
+     */
+    private final byte[] filterResults;
+
+    /**
+     * Index of first view of evaluated range.
+     */
+    private final int firstViewIndex;
+
+    /**
+     * Index of first view of this task.
+     */
+    private final int fromViewIndex;
+
+    /**
+     * Index following last view of this task.
+     */
+    private final int toViewIndex;
+
+    /**
+     * ParallelFilterTask's constructor.
+     *
+     * @param flatViewTree     Flat view tree.
+     * @param viewFilter       View filter.
+     * @param branchViewFilter Branch view filter. Can be NULL.
+     * @param filterResults    Filter results, from first view of evaluated range.
+     * @param firstViewIndex   Index of first view of evaluated range.
+     * @param fromViewIndex    Index of first view of this task.
+     * @param toViewIndex      Index following last view of this task.
+     */
+    private ParallelFilterTask(final FlatViewTree flatViewTree, final ViewFilter viewFilter, final BranchViewFilter branchViewFilter, final byte[] filterResults, final int firstViewIndex, final int fromViewIndex, final int toViewIndex) {
+        this.flatViewTree = flatViewTree;
+        this.viewFilter = viewFilter;
+        this.branchViewFilter = branchViewFilter;
+        this.filterResults = filterResults;
+        this.firstViewIndex = firstViewIndex;
+        this.fromViewIndex = fromViewIndex;
+        this.toViewIndex = toViewIndex;
+    }
+
+    /**
+     * Checks if an executor is a fork-join pool.
+     *
+     * @param executor Executor.
+     * @return TRUE if executor is a fork-join pool.
+     */
+    static boolean isForkJoinPool(final Executor executor) {
+        return executor instanceof ForkJoinPool;
+    }
+
+    /**
+     * Evaluates filters on a range of flat view tree views, in a fork-join pool.
+     *
+     * @param forkJoinPool     Fork-join pool.
+     * @param flatViewTree     Flat view tree.
+     * @param viewFilter       View filter.
+     * @param branchViewFilter Branch view filter. Can be NULL.
+     * @param fromViewIndex    Index of first view.
+     * @param toViewIndex      Index following last view.
+     * @return Filter results of each view of the range, as {@see FlatViewTree#filter} returns them.
+     */
+    static byte[] filter(@NonNull final Executor forkJoinPool, @NonNull final FlatViewTree flatViewTree, @NonNull final ViewFilter viewFilter, final BranchViewFilter branchViewFilter, final int fromViewIndex, final int toViewIndex) {
+        final byte[] filterResults = new byte[toViewIndex - fromViewIndex];
+        ((ForkJoinPool) forkJoinPool).invoke(new ParallelFilterTask(flatViewTree, viewFilter, branchViewFilter, filterResults, fromViewIndex, fromViewIndex, toViewIndex));
+        return filterResults;
+    }
+
+    @Override
+    protected void compute() {
+        // - Split range in halves until it is small enough.
+        if (toViewIndex - fromViewIndex > SEQUENTIAL_THRESHOLD) {
+            final int middleViewIndex = (fromViewIndex + toViewIndex) >>> 1;
+            invokeAll(new ParallelFilterTask(flatViewTree, viewFilter, branchViewFilter, filterResults, firstViewIndex, fromViewIndex, middleViewIndex),
+                    new ParallelFilterTask(flatViewTree, viewFilter, branchViewFilter, filterResults, firstViewIndex, middleViewIndex, toViewIndex));
+            return;
+        }
+
+        // - Evaluate filters on each view of the range.
+        for (int viewIndex = fromViewIndex; viewIndex < toViewIndex; viewIndex++) {
+            filterResults[viewIndex - firstViewIndex] = flatViewTree.filter(viewFilter, branchViewFilter, viewIndex);
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.jaouan.viewsfrom;
+
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+
+/**
+ * Property animation provider.
+ * Unlike an {@link AnimationProvider}'s animation, a property animation changes view's actual properties.
+ */
+public interface PropertyAnimationProvider {
+
+    /**
+     * Provides a property animation, by setting view's start properties and animator's end properties.
+     *
+     * @param view                 Animated view.
+     * @param viewPropertyAnimator View's property animator, started once provided.
+     */
+    void provide(View view, ViewPropertyAnimator viewPropertyAnimator);
+
+}
@@ -0,0 +1,293 @@
+package com.jaouan.viewsfrom;
+
+import com.jaouan.viewsfrom.filters.AggregatedViewFilters;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+/**
+ * Query metrics : what a find has cost.
+ */
+public final class QueryMetrics {
+
+    /**
+     * Views visited by traversals.
+     */
+    private int visitedViewsCount;
+
+    /**
+     * Group views whose childs have been visited by traversals.
+     */
+    private int descendedGroupViewsCount;
+
+    /**
+     * Found views count.
+     */
+    private int matchedViewsCount;
+
+    /**
+     * Elapsed time, in nanoseconds.
+     */
+    private long elapsedNanos;
+
+    /**
+     * Views have been returned from cache.
+     */
+    private boolean answeredFromCache;
+
+    /**
+     * Views of at least one root view have been looked up in its index.
+     */
+    private boolean answeredFromIndex;
+
+    /**
+     * Planned filters, in evaluation order.
+     */
+    private final ViewFilter[] viewFilters;
+
+    /**
+     * Evaluations count of each filter.
+     */
+    private final int[] evaluationsCounts;
+
+    /**
+     * Rejections count of each filter.
+     */
+    private final int[] rejectionsCounts;
+
+    /**
+     * Match results cache hits count of each filter.
+     */
+    private final long[] cacheHitsCounts;
+
+    /**
+     * Match results cache misses count of each filter.
+     */
+    private final long[] cacheMissesCounts;
+
+    /**
+     * Sampled pass rate of each filter.
+     */
+    private final float[] sampledPassRates;
+
+    /**
+     * Sampled average cost of each filter, in nanoseconds.
+     */
+    private final float[] sampledAverageNanos;
+
+    /**
+     * Filters have been reordered from sampled evaluations.
+     */
+    private boolean filtersReordered;
+
+    /**
+     * QueryMetrics's constructor.
+     *
+     * @param filtersCount Planned filters count.
+     */
+    QueryMetrics(final int filtersCount) {
+        viewFilters = new ViewFilter[filtersCount];
+        evaluationsCounts = new int[filtersCount];
+        rejectionsCounts = new int[filtersCount];
+        cacheHitsCounts = new long[filtersCount];
+        cacheMissesCounts = new long[filtersCount];
+        sampledPassRates = new float[filtersCount];
+        sampledAverageNanos = new float[filtersCount];
+    }
+
+    /**
+     * Sets counts of planned filters.
+     *
+     * @param countingViewFilters Counting view filters of planned filters.
+     * @param countedViewFilter   Aggregated counting view filters, sampling them.
+     */
+    void setFilterCounts(final CountingViewFilter[] countingViewFilters, final AggregatedViewFilters countedViewFilter) {
+        filtersReordered = countedViewFilter.isReordered();
+        for (int filterIndex = 0; filterIndex < countingViewFilters.length; filterIndex++) {
+            sampledPassRates[filterIndex] = countedViewFilter.getSampledPassRate(filterIndex);
+            sampledAverageNanos[filterIndex] = countedViewFilter.getSampledAverageNanos(filterIndex);
+            viewFilters[filterIndex] = countingViewFilters[filterIndex].getViewFilter();
+            evaluationsCounts[filterIndex] = countingViewFilters[filterIndex].getEvaluationsCount();
+            rejectionsCounts[filterIndex] = countingViewFilters[filterIndex].getRejectionsCount();
+            cacheHitsCounts[filterIndex] = countingViewFilters[filterIndex].getCacheHitsCount();
+            cacheMissesCounts[filterIndex] = countingViewFilters[filterIndex].getCacheMissesCount();
+        }
+    }
+
+    /**
+     * Adds counts of a traversal.
+     *
+     * @param visitedViewsCount        Visited views count.
+     * @param descendedGroupViewsCount Descended group views count.
+     */
+    void addTraversal(final int visitedViewsCount, final int descendedGroupViewsCount) {
+        this.visitedViewsCount += visitedViewsCount;
+        this.descendedGroupViewsCount += descendedGroupViewsCount;
+    }
+
+    /**
+     * Sets found views count and elapsed time.
+     *
+     * @param matchedViewsCount Found views count.
+     * @param elapsedNanos      Elapsed time, in nanoseconds.
+     */
+    void setResult(final int matchedViewsCount, final long elapsedNanos) {
+        this.matchedViewsCount = matchedViewsCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Marks views as returned from cache.
+     */
+    void setAnsweredFromCache() {
+        answeredFromCache = true;
+    }
+
+    /**
+     * Marks views as looked up in an index.
+     */
+    void setAnsweredFromIndex() {
+        answeredFromIndex = true;
+    }
+
+    /**
+     * Gets views count visited by traversals, root views excluded.
+     *
+     * @return Visited views count.
+     */
+    public int getVisitedViewsCount() {
+        return visitedViewsCount;
+    }
+
+    /**
+     * Gets count of group views whose childs have been visited, root views included.
+     *
+     * @return Descended group views count.
+     */
+    public int getDescendedGroupViewsCount() {
+        return descendedGroupViewsCount;
+    }
+
+    /**
+     * Gets found views count.
+     *
+     * @return Found views count.
+     */
+    public int getMatchedViewsCount() {
+        return matchedViewsCount;
+    }
+
+    /**
+     * Gets elapsed time of find.
+     *
+     * @return Elapsed time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Checks if views have been returned from cache.
+     *
+     * @return TRUE if views have been returned from cache.
+     */
+    public boolean isAnsweredFromCache() {
+        return answeredFromCache;
+    }
+
+    /**
+     * Checks if views of at least one root view have been looked up in its index instead of being traversed.
+     *
+     * @return TRUE if an index has been used.
+     */
+    public boolean isAnsweredFromIndex() {
+        return answeredFromIndex;
+    }
+
+    /**
+     * Gets planned filters count.
+     *
+     * @return Planned filters count.
+     */
+    public int getFiltersCount() {
+        return viewFilters.length;
+    }
+
+    /**
+     * Gets a planned filter. Filters are in evaluation order, after they have been merged by planning.
+     *
+     * @param filterIndex Filter index.
+     * @return Planned filter.
+     */
+    public ViewFilter getFilter(final int filterIndex) {
+        return viewFilters[filterIndex];
+    }
+
+    /**
+     * Gets how many times a filter has been evaluated.
+     *
+     * @param filterIndex Filter index.
+     * @return Evaluations count.
+     */
+    public int getEvaluationsCount(final int filterIndex) {
+        return evaluationsCounts[filterIndex];
+    }
+
+    /**
+     * Gets how many views a filter has rejected.
+     *
+     * @param filterIndex Filter index.
+     * @return Rejections count.
+     */
+    public int getRejectionsCount(final int filterIndex) {
+        return rejectionsCounts[filterIndex];
+    }
+
+    /**
+     * Gets how many texts a regex filter has found in its match results cache during find.
+     *
+     * @param filterIndex Filter index.
+     * @return Cache hits count, 0 if filter is not a regex one.
+     */
+    public long getCacheHitsCount(final int filterIndex) {
+        return cacheHitsCounts[filterIndex];
+    }
+
+    /**
+     * Gets how many texts a regex filter has not found in its match results cache during find, and has matched against its regexes.
+     *
+     * @param filterIndex Filter index.
+     * @return Cache misses count, 0 if filter is not a regex one.
+     */
+    public long getCacheMissesCount(final int filterIndex) {
+        return cacheMissesCounts[filterIndex];
+    }
+
+    /**
+     * Gets pass rate of a filter, sampled over first evaluations when filters are adaptively ordered.
+     *
+     * @param filterIndex Filter index.
+     * @return Sampled pass rate, between 0 and 1, or NaN if filter has not been sampled.
+     */
+    public float getSampledPassRate(final int filterIndex) {
+        return sampledPassRates[filterIndex];
+    }
+
+    /**
+     * Gets average cost of a filter, sampled over first evaluations when filters are adaptively ordered.
+     *
+     * @param filterIndex Filter index.
+     * @return Sampled average cost, in nanoseconds, or NaN if filter has not been sampled.
+     */
+    public float getSampledAverageNanos(final int filterIndex) {
+        return sampledAverageNanos[filterIndex];
+    }
+
+    /**
+     * Checks if filters are now evaluated in another order than planned one, from sampled pass rates and costs.
+     *
+     * @return TRUE if filters have been reordered.
+     */
+    public boolean isFiltersReordered() {
+        return filtersReordered;
+    }
+
+}
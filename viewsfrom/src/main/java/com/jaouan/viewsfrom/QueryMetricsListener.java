@@ -0,0 +1,14 @@
+package com.jaouan.viewsfrom;
+
+/**
+ * Query metrics listener, called after each find.
+ */
+public interface QueryMetricsListener {
+
+    /**
+     * Query metrics of a find.
+     * @param queryMetrics Query metrics.
+     */
+    void onQueryMetrics(QueryMetrics queryMetrics);
+
+}
@@ -0,0 +1,11 @@
+package com.jaouan.viewsfrom;
+
+/**
+ * Reusable animation provider.
+ * It declares that its animations are all alike, so an ended one can be reset and started again on another view instead of providing a new one.
+ * Provided animations must not fill after, and their listener is replaced.
+ * Only ended animations are reused : a first run of N views started together still calls the provider N times,
+ * and so parses an animation resource N times. Following runs reuse them.
+ */
+public interface ReusableAnimationProvider extends AnimationProvider {
+}
@@ -0,0 +1,297 @@
+package com.jaouan.viewsfrom;
+
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.util.List;
+
+/**
+ * Staggered animations scheduler.
+ * Each view's animation is started on the frame its slot comes due, instead of all animations being started at once with growing start offsets.
+ * Running animations count can be capped, and views off screen can be skipped : they are instantly animated to their end state, without taking a slot.
+ * With a frame budget, frame times are measured while scheduling and the schedule adapts to frames over budget :
+ * running animations count is reduced first, then remaining delays are collapsed, and finally remaining views are instantly animated to their end state.
+ */
+final class StaggerScheduler implements FrameTicker.FrameListener {
+
+    /**
+     * View animation starter.
+     */
+    interface ViewAnimationStarter {
+
+        /**
+         * Starts view's animation.
+         *
+         * @param view                 View.
+         * @param instant              TRUE to animate view to its end state instantly.
+         * @param animationEndCallback Callback to run once animation has ended.
+         * @return FALSE if no animation has been started.
+         */
+        boolean startAnimation(View view, boolean instant, Runnable animationEndCallback);
+
+    }
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * Consecutive frames over budget before schedule adapts.
+     */
+    private static final int OVER_BUDGET_FRAMES_BEFORE_ADAPTATION = 2;
+
+    /**
+     * Views to animate.
+     */
+    private final View[] views;
+
+    /**
+     * Delay between each slot, in milliseconds. It may be collapsed to adapt to frame budget.
+     */
+    private long delayBetweenEachChild;
+
+    /**
+     * Max running animations count. 0 if unlimited. It may be reduced to adapt to frame budget.
+     */
+    private int maxRunningAnimationsCount;
+
+    /**
+     * Frame budget, in nanoseconds. 0 if schedule doesn't adapt to frame times.
+     */
+    private final long frameBudgetNanos;
+
+    /**
+     * Skip views off screen.
+     */
+    private final boolean skipOffScreenViews;
+
+    /**
+     * View animation starter.
+     */
+    private final ViewAnimationStarter viewAnimationStarter;
+
+    /**
+     * End action. NULL if there is none.
+     */
+    private final Runnable endAction;
+
+    /**
+     * Frame ticker.
+     */
+    private final FrameTicker frameTicker;
+
+    /**
+     * Callback of each ended animation.
+     */
+    private final Runnable animationEndCallback = new Runnable() {
+        @Override
+        public void run() {
+            onAnimationEnd();
+        }
+    };
+
+    /**
+     * Rect reused to check if views are on screen.
+     */
+    private final Rect visibleRect = new Rect();
+
+    /**
+     * First frame time, in nanoseconds. -1 before first frame.
+     */
+    private long firstFrameTimeNanos = -1;
+
+    /**
+     * Last frame time, in nanoseconds.
+     */
+    private long lastFrameTimeNanos;
+
+    /**
+     * Consecutive frames over budget count.
+     */
+    private int overBudgetFramesCount;
+
+    /**
+     * Remaining views are instantly animated to their end state.
+     */
+    private boolean instant;
+
+    /**
+     * Next view index.
+     */
+    private int nextViewIndex;
+
+    /**
+     * Next slot index. Skipped views don't take a slot.
+     */
+    private int nextSlotIndex;
+
+    /**
+     * Running animations count.
+     */
+    private int runningAnimationsCount;
+
+    /**
+     * Scheduler is over or cancelled.
+     */
+    private boolean finished;
+
+    /**
+     * StaggerScheduler's constructor.
+     *
+     * @param views                     Views to animate.
+     * @param delayBetweenEachChild     Delay between each slot, in milliseconds.
+     * @param maxRunningAnimationsCount Max running animations count. 0 if unlimited.
+     * @param skipOffScreenViews        Skip views off screen.
+     * @param frameBudgetMillis         Frame budget, in milliseconds. 0 if schedule doesn't adapt to frame times.
+     * @param viewAnimationStarter      View animation starter.
+     * @param endAction                 End action. NULL if there is none.
+     * @param frameTicker               Frame ticker.
+     */
+    StaggerScheduler(@NonNull final List<View> views, final long delayBetweenEachChild, final int maxRunningAnimationsCount, final boolean skipOffScreenViews, final long frameBudgetMillis, @NonNull final ViewAnimationStarter viewAnimationStarter, final Runnable endAction, @NonNull final FrameTicker frameTicker) {
+        this.views = views.toArray(new View[views.size()]);
+        this.delayBetweenEachChild = delayBetweenEachChild;
+        this.maxRunningAnimationsCount = maxRunningAnimationsCount;
+        this.frameBudgetNanos = frameBudgetMillis * NANOS_PER_MILLI;
+        this.skipOffScreenViews = skipOffScreenViews;
+        this.viewAnimationStarter = viewAnimationStarter;
+        this.endAction = endAction;
+        this.frameTicker = frameTicker;
+    }
+
+    /**
+     * Starts scheduling animations, from next frame.
+     */
+    void start() {
+        frameTicker.postFrame(this);
+    }
+
+    /**
+     * Cancels scheduling of animations not started yet. Running animations are not affected.
+     */
+    void cancel() {
+        finished = true;
+        frameTicker.cancel();
+        for (int viewIndex = nextViewIndex; viewIndex < views.length; viewIndex++) {
+            views[viewIndex] = null;
+        }
+    }
+
+    /**
+     * Ends scheduling : all animations not started yet are started on next frame, and animate their view to its end state instantly.
+     */
+    void end() {
+        if (!finished) {
+            instant = true;
+            frameTicker.postFrame(this);
+        }
+    }
+
+    @Override
+    public void onFrame(final long frameTimeNanos) {
+        if (finished) {
+            return;
+        }
+        if (firstFrameTimeNanos < 0) {
+            firstFrameTimeNanos = frameTimeNanos;
+        } else if (frameBudgetNanos > 0) {
+            // - Adapt schedule to last frame time.
+            if (frameTimeNanos - lastFrameTimeNanos > frameBudgetNanos) {
+                onFrameOverBudget();
+            } else {
+                overBudgetFramesCount = 0;
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+
+        // - Start animations of due views, while running animations count allows it. Instant animations are all due.
+        final long elapsedTime = (frameTimeNanos - firstFrameTimeNanos) / NANOS_PER_MILLI;
+        while (nextViewIndex < views.length
+                && (instant || ((maxRunningAnimationsCount == 0 || runningAnimationsCount < maxRunningAnimationsCount)
+                && nextSlotIndex * delayBetweenEachChild <= elapsedTime))) {
+            final View view = views[nextViewIndex];
+            views[nextViewIndex++] = null;
+            final boolean skipped = isSkipped(view);
+            if (!skipped) {
+                nextSlotIndex++;
+            }
+            // Animation is counted before it starts, since it may report its end at once.
+            runningAnimationsCount++;
+            if (!viewAnimationStarter.startAnimation(view, instant || skipped, animationEndCallback)) {
+                runningAnimationsCount--;
+            }
+        }
+
+        // - Wait for next frame if some views are still due, or for an animation end if running animations count is reached.
+        // Frames are always measured if schedule adapts to frame times.
+        if (nextViewIndex < views.length) {
+            if (frameBudgetNanos > 0 || maxRunningAnimationsCount == 0 || runningAnimationsCount < maxRunningAnimationsCount) {
+                frameTicker.postFrame(this);
+            }
+        } else if (runningAnimationsCount == 0) {
+            finish();
+        }
+    }
+
+    /**
+     * Adapts schedule to a frame over budget, once enough consecutive frames were over budget.
+     */
+    private void onFrameOverBudget() {
+        if (++overBudgetFramesCount < OVER_BUDGET_FRAMES_BEFORE_ADAPTATION) {
+            return;
+        }
+        overBudgetFramesCount = 0;
+
+        if (maxRunningAnimationsCount != 1) {
+            // - Halve running animations count.
+            final int runningAnimationsCountLimit = maxRunningAnimationsCount == 0 ? runningAnimationsCount : maxRunningAnimationsCount;
+            maxRunningAnimationsCount = Math.max(1, runningAnimationsCountLimit / 2);
+        } else if (delayBetweenEachChild > 0) {
+            // - Collapse remaining delays.
+            delayBetweenEachChild = 0;
+        } else {
+            // - Animate remaining views to their end state.
+            instant = true;
+        }
+    }
+
+    /**
+     * Called once an animation has ended.
+     */
+    private void onAnimationEnd() {
+        runningAnimationsCount--;
+        if (finished) {
+            return;
+        }
+        if (nextViewIndex < views.length) {
+            frameTicker.postFrame(this);
+        } else if (runningAnimationsCount == 0) {
+            finish();
+        }
+    }
+
+    /**
+     * Finishes scheduler and calls end action.
+     */
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (endAction != null) {
+            endAction.run();
+        }
+    }
+
+    /**
+     * Checks if a view is skipped, because it is off screen or detached.
+     *
+     * @param view View.
+     * @return TRUE if view is skipped.
+     */
+    private boolean isSkipped(final View view) {
+        return skipOffScreenViews && !view.getGlobalVisibleRect(visibleRect);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.jaouan.viewsfrom;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Trace sections, shown in systrace and Perfetto captures from API 18. Ignored before.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+final class TraceSections {
+
+    /**
+     * Private constructor to disallow instantiation.
+     */
+    private TraceSections() {
+    }
+
+    /**
+     * Begins a section. It must be ended on the same thread.
+     *
+     * @param sectionName Section name.
+     */
+    static void begin(final String sectionName) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    /**
+     * Ends last begun section.
+     */
+    static void end() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+
+}
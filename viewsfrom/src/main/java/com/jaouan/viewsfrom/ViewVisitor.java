@@ -0,0 +1,18 @@
+package com.jaouan.viewsfrom;
+
+import android.view.View;
+
+/**
+ * View visitor, called while views are found.
+ */
+public interface ViewVisitor {
+
+    /**
+     * View visit.
+     * @param view Found view.
+     * @param viewIndex View index in views find.
+     * @return FALSE to stop visiting views.
+     */
+    boolean onView(View view, int viewIndex);
+
+}
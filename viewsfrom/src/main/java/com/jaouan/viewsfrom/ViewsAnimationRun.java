@@ -0,0 +1,168 @@
+package com.jaouan.viewsfrom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Run of a views animator.
+ * It tracks every animation started on views, calls end action once all of them have ended, and can cancel or end them all.
+ * References to views are released as soon as run is over.
+ */
+final class ViewsAnimationRun {
+
+    /**
+     * Running animation of a view.
+     */
+    interface RunningAnimation {
+
+        /**
+         * Cancels animation, leaving view as it is. Its end is not reported.
+         */
+        void cancel();
+
+        /**
+         * Ends animation, by animating view to its end state instantly. Its end is reported.
+         */
+        void end();
+
+    }
+
+    /**
+     * End action. NULL if there is none.
+     */
+    private final Runnable endAction;
+
+    /**
+     * Started animations, ended or not. NULL once run is over.
+     */
+    private List<RunningAnimation> startedAnimations = new ArrayList<>();
+
+    /**
+     * Running animations count.
+     */
+    private int runningAnimationsCount;
+
+    /**
+     * All animations have been started.
+     */
+    private boolean allAnimationsStarted;
+
+    /**
+     * Stagger scheduler. NULL if animations are not scheduled on frames.
+     */
+    private StaggerScheduler staggerScheduler;
+
+    /**
+     * ViewsAnimationRun's constructor.
+     *
+     * @param endAction End action. NULL if there is none.
+     */
+    ViewsAnimationRun(final Runnable endAction) {
+        this.endAction = endAction;
+    }
+
+    /**
+     * Defines stagger scheduler, starting animations of run.
+     *
+     * @param staggerScheduler Stagger scheduler.
+     */
+    void setStaggerScheduler(final StaggerScheduler staggerScheduler) {
+        this.staggerScheduler = staggerScheduler;
+    }
+
+    /**
+     * Checks if run is over, because all animations have ended or run has been cancelled.
+     *
+     * @return TRUE if run is over.
+     */
+    boolean isOver() {
+        return startedAnimations == null;
+    }
+
+    /**
+     * Called once an animation has been started.
+     *
+     * @param runningAnimation Running animation.
+     */
+    void onAnimationStart(final RunningAnimation runningAnimation) {
+        if (!isOver()) {
+            startedAnimations.add(runningAnimation);
+            runningAnimationsCount++;
+        }
+    }
+
+    /**
+     * Called once a started animation has ended.
+     */
+    void onAnimationEnd() {
+        if (!isOver()) {
+            runningAnimationsCount--;
+            finishIfOver();
+        }
+    }
+
+    /**
+     * Called once all animations have been started.
+     */
+    void onAllAnimationsStarted() {
+        if (!isOver()) {
+            allAnimationsStarted = true;
+            finishIfOver();
+        }
+    }
+
+    /**
+     * Cancels run. Running animations are cancelled, animations not started yet won't be, and end action is not called.
+     */
+    void cancel() {
+        if (isOver()) {
+            return;
+        }
+        final List<RunningAnimation> cancelledAnimations = startedAnimations;
+        release();
+        for (int animationIndex = 0; animationIndex < cancelledAnimations.size(); animationIndex++) {
+            cancelledAnimations.get(animationIndex).cancel();
+        }
+    }
+
+    /**
+     * Ends run. All animations, started or not yet, animate their view to its end state instantly, then end action is called.
+     */
+    void end() {
+        if (isOver()) {
+            return;
+        }
+        if (staggerScheduler != null) {
+            staggerScheduler.end();
+        }
+        // Ended animations may report their end at once, and then finish run.
+        final List<RunningAnimation> endedAnimations = startedAnimations;
+        for (int animationIndex = 0; animationIndex < endedAnimations.size(); animationIndex++) {
+            endedAnimations.get(animationIndex).end();
+        }
+    }
+
+    /**
+     * Finishes run and calls end action, if all animations have been started and have ended.
+     */
+    private void finishIfOver() {
+        if (allAnimationsStarted && runningAnimationsCount == 0) {
+            release();
+            if (endAction != null) {
+                endAction.run();
+            }
+        }
+    }
+
+    /**
+     * Releases references to started animations and stops scheduling new ones.
+     */
+    private void release() {
+        startedAnimations = null;
+        if (staggerScheduler != null) {
+            staggerScheduler.cancel();
+            staggerScheduler = null;
+        }
+    }
+
+}
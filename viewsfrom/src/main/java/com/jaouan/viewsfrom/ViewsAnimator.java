@@ -1,9 +1,13 @@
 package com.jaouan.viewsfrom;
 
+import android.animation.Animator;
 import android.content.Context;
+import android.graphics.Rect;
 import android.support.annotation.AnimRes;
 import android.support.annotation.NonNull;
 import android.view.View;
+import android.view.ViewParent;
+import android.view.ViewPropertyAnimator;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 
@@ -21,15 +25,50 @@ public final class ViewsAnimator {
 
     /**
      * Animation provider.
-     * It provides by default the animation ressource id.
+     * It provides by default the animation ressource id, whose animations are all alike and then reusable.
      */
-    private AnimationProvider animationProvider = new AnimationProvider() {
+    private AnimationProvider animationProvider = new ReusableAnimationProvider() {
         @Override
         public Animation provide() {
             return AnimationUtils.loadAnimation(context, animResId);
         }
     };
 
+    /**
+     * Pool of animations, if animation provider is reusable.
+     */
+    private AnimationPool animationPool;
+
+    /**
+     * Run of last start. NULL if never started or cancelled.
+     */
+    private ViewsAnimationRun viewsAnimationRun;
+
+    /**
+     * Schedule animations on frames.
+     */
+    private boolean frameScheduling;
+
+    /**
+     * Max running animations count, when scheduled on frames. 0 if unlimited.
+     */
+    private int maxRunningAnimationsCount;
+
+    /**
+     * Only animate views visible on screen. Others are instantly animated to their end state.
+     */
+    private boolean onlyVisibleOnScreen;
+
+    /**
+     * Frame budget in milliseconds, when scheduled on frames. 0 if schedule doesn't adapt to frame times.
+     */
+    private long frameBudgetMillis;
+
+    /**
+     * Property animation provider. NULL if views are animated with animation provider.
+     */
+    private PropertyAnimationProvider propertyAnimationProvider;
+
     /**
      * Views finder. (ignored if views list is defined)
      */
@@ -58,9 +97,9 @@ public final class ViewsAnimator {
 
 
     /**
-     * Views visibility before animation. NULL if nothing to change.
+     * Views mutator applying views visibility before animation. NULL if nothing to change.
      */
-    private Integer viewsVisibilityBeforeAnimation;
+    private ViewsMutator viewsMutatorBeforeAnimation;
 
     /**
      * ViewsAnimator's constructor.
@@ -118,6 +157,32 @@ public final class ViewsAnimator {
         this.animationProvider = animationProvider;
     }
 
+    /**
+     * ViewAnimator's constructor.
+     *
+     * @param viewsFinder               Views finder.
+     * @param propertyAnimationProvider Property animation provider.
+     */
+    public ViewsAnimator(@NonNull final ViewsFinder viewsFinder, @NonNull final PropertyAnimationProvider propertyAnimationProvider) {
+        FunctionUtils.checkParameterIsNotNull("viewsFinder", viewsFinder);
+        FunctionUtils.checkParameterIsNotNull("propertyAnimationProvider", propertyAnimationProvider);
+        this.viewsFinder = viewsFinder;
+        this.propertyAnimationProvider = propertyAnimationProvider;
+    }
+
+    /**
+     * ViewAnimator's constructor.
+     *
+     * @param views                     Views list.
+     * @param propertyAnimationProvider Property animation provider.
+     */
+    public ViewsAnimator(@NonNull final List<View> views, @NonNull final PropertyAnimationProvider propertyAnimationProvider) {
+        FunctionUtils.checkParameterIsNotNull("views", views);
+        FunctionUtils.checkParameterIsNotNull("propertyAnimationProvider", propertyAnimationProvider);
+        this.views = views;
+        this.propertyAnimationProvider = propertyAnimationProvider;
+    }
+
 
     /**
      * Defines delay between each child animation.
@@ -149,57 +214,507 @@ public final class ViewsAnimator {
      * @return Views animator.
      */
     public ViewsAnimator withViewsVisibilityBeforeAnimation(final int viewsVisibilityBeforeAnimation) {
-        this.viewsVisibilityBeforeAnimation = viewsVisibilityBeforeAnimation;
+        this.viewsMutatorBeforeAnimation = new ViewsMutator().visibility(viewsVisibilityBeforeAnimation);
+        return this;
+    }
+
+    /**
+     * Schedules animations on frames : each view's animation is started when its slot comes due, instead of starting all animations at once with growing start offsets.
+     *
+     * @return Views animator.
+     */
+    public ViewsAnimator withFrameScheduling() {
+        this.frameScheduling = true;
+        return this;
+    }
+
+    /**
+     * Defines max running animations count. Next views wait for an animation to end. Animations are then scheduled on frames.
+     *
+     * @param maxRunningAnimationsCount Max running animations count. 0 if unlimited.
+     * @return Views animator.
+     */
+    public ViewsAnimator withMaxRunningAnimations(final int maxRunningAnimationsCount) {
+        FunctionUtils.checkParameterIsNotNegative("maxRunningAnimationsCount", maxRunningAnimationsCount);
+        this.maxRunningAnimationsCount = maxRunningAnimationsCount;
+        this.frameScheduling = true;
         return this;
     }
 
     /**
-     * Let's animate !
+     * Only animates views visible on screen, i.e. neither scrolled away, clipped by their parents nor detached.
+     * Others are instantly animated to their end state, and don't take a slot in the stagger.
+     * If animations are scheduled on frames, visibility is checked when view's slot comes due.
+     *
+     * @return Views animator.
+     */
+    public ViewsAnimator onlyVisibleOnScreen() {
+        this.onlyVisibleOnScreen = true;
+        return this;
+    }
+
+    /**
+     * Defines frame budget. Animations are then scheduled on frames, and frame times are measured while scheduling.
+     * When frames are over budget, running animations count is reduced first, then remaining delays are collapsed, and finally remaining views are instantly animated to their end state.
+     * End action is still called once all animations have ended.
+     *
+     * @param frameBudgetMillis Frame budget, in milliseconds.
+     * @return Views animator.
+     */
+    public ViewsAnimator withFrameBudget(final long frameBudgetMillis) {
+        FunctionUtils.checkParameterIsNotNegative("frameBudgetMillis", frameBudgetMillis);
+        this.frameBudgetMillis = frameBudgetMillis;
+        this.frameScheduling = true;
+        return this;
+    }
+
+    /**
+     * Let's animate ! Animations of previous start are cancelled if they are still running.
+     * End action is called once every started animation has ended.
      * @return Views animator for future animation.
      */
     public ViewsAnimator start() {
+        TraceSections.begin("ViewsAnimator.start");
+        try {
+            startAnimations();
+        } finally {
+            TraceSections.end();
+        }
+        return this;
+    }
+
+    /**
+     * Starts animations of all views.
+     */
+    private void startAnimations() {
         // - Find viewsToAnimate from viewsFinder if necessary.
         List<View> viewsToAnimate = this.views;
         if (viewsToAnimate == null) {
             viewsToAnimate = viewsFinder.find();
         }
 
-        // - Update viewsToAnimate visibility before animation if necessary.
-        if (viewsVisibilityBeforeAnimation != null) {
-            for (final View view : viewsToAnimate) {
-                view.setVisibility(viewsVisibilityBeforeAnimation);
-            }
+        // - Update viewsToAnimate visibility before animation if necessary, skipping views which already have it.
+        if (viewsMutatorBeforeAnimation != null) {
+            viewsMutatorBeforeAnimation.commit(viewsToAnimate);
         }
 
-        // - Animate all viewsToAnimate.
-        Animation animation = null;
-        for (int viewIndex = 0; viewIndex < viewsToAnimate.size(); viewIndex++) {
-            animation = animationProvider.provide();
-            animation.setStartOffset(animation.getStartOffset() + delayBetweenEachChild * viewIndex);
-            viewsToAnimate.get(viewIndex).startAnimation(animation);
+        // - Pool animations if animation provider is reusable.
+        if (animationPool == null && animationProvider instanceof ReusableAnimationProvider) {
+            animationPool = new AnimationPool((ReusableAnimationProvider) animationProvider);
         }
 
-        // - Call end action on last animation end.
-        if (animation != null) {
-            animation.setAnimationListener(new Animation.AnimationListener() {
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    if (endAction != null) {
-                        endAction.run();
-                    }
-                }
+        // - Cancel previous run.
+        cancel();
+        final ViewsAnimationRun startedViewsAnimationRun = new ViewsAnimationRun(endAction);
+        viewsAnimationRun = startedViewsAnimationRun;
 
+        // - Schedule animations on frames if necessary.
+        if (frameScheduling) {
+            final StaggerScheduler staggerScheduler = new StaggerScheduler(viewsToAnimate, delayBetweenEachChild, maxRunningAnimationsCount, onlyVisibleOnScreen, frameBudgetMillis, new StaggerScheduler.ViewAnimationStarter() {
                 @Override
-                public void onAnimationStart(Animation animation) {
+                public boolean startAnimation(final View view, final boolean instant, final Runnable animationEndCallback) {
+                    return ViewsAnimator.this.startAnimation(view, 0, instant, startedViewsAnimationRun, animationEndCallback);
                 }
-
+            }, new Runnable() {
                 @Override
-                public void onAnimationRepeat(Animation animation) {
+                public void run() {
+                    startedViewsAnimationRun.onAllAnimationsStarted();
                 }
-            });
+            }, FrameTicker.create());
+            startedViewsAnimationRun.setStaggerScheduler(staggerScheduler);
+            staggerScheduler.start();
+            return;
+        }
+
+        // - Otherwise, start all animations with growing start offsets. Views off screen don't take a slot.
+        final Rect visibleRect = new Rect();
+        int slotIndex = 0;
+        for (final View view : viewsToAnimate) {
+            if (onlyVisibleOnScreen && !view.getGlobalVisibleRect(visibleRect)) {
+                startAnimation(view, 0, true, startedViewsAnimationRun, null);
+            } else {
+                startAnimation(view, delayBetweenEachChild * slotIndex++, false, startedViewsAnimationRun, null);
+            }
         }
+        startedViewsAnimationRun.onAllAnimationsStarted();
+    }
 
+    /**
+     * Cancels animations of last start : running animations stop where they are, animations not started yet won't be, and end action is not called.
+     *
+     * @return Views animator.
+     */
+    public ViewsAnimator cancel() {
+        if (viewsAnimationRun != null) {
+            viewsAnimationRun.cancel();
+            viewsAnimationRun = null;
+        }
         return this;
     }
 
+    /**
+     * Ends animations of last start : all views, animated or not yet, are animated to their end state instantly, then end action is called.
+     *
+     * @return Views animator.
+     */
+    public ViewsAnimator end() {
+        if (viewsAnimationRun != null) {
+            viewsAnimationRun.end();
+        }
+        return this;
+    }
+
+    /**
+     * Starts a view's animation.
+     *
+     * @param view                 View.
+     * @param startDelay           Start delay.
+     * @param instant              TRUE to animate view to its end state instantly.
+     * @param viewsAnimationRun    Run tracking animation.
+     * @param animationEndCallback Callback to run once animation has ended. NULL if there is none.
+     * @return TRUE, since an animation is always started.
+     */
+    private boolean startAnimation(final View view, final long startDelay, final boolean instant, final ViewsAnimationRun viewsAnimationRun, final Runnable animationEndCallback) {
+        if (propertyAnimationProvider != null) {
+            startPropertyAnimation(view, startDelay, instant, viewsAnimationRun, animationEndCallback);
+            return true;
+        }
+
+        final Animation animation = animationPool != null ? animationPool.obtain() : animationProvider.provide();
+        final ViewAnimationListener viewAnimationListener = new ViewAnimationListener(view, animation, animationPool, viewsAnimationRun, animationEndCallback);
+        animation.setAnimationListener(viewAnimationListener);
+        final boolean drawn = isDrawn(view);
+        if (instant || !drawn) {
+            animation.setStartOffset(0);
+            animation.setDuration(0);
+        } else {
+            animation.setStartOffset(animation.getStartOffset() + startDelay);
+        }
+        viewsAnimationRun.onAnimationStart(viewAnimationListener);
+        view.startAnimation(animation);
+
+        // - Animations of views that are not drawn never end : report their end at once.
+        if (!drawn) {
+            viewAnimationListener.endAtOnce();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a view is drawn, so that its animation runs and ends : it is attached to a window and its ancestors are visible.
+     *
+     * @param view View.
+     * @return TRUE if view is drawn.
+     */
+    private static boolean isDrawn(final View view) {
+        if (view.getWindowToken() == null) {
+            return false;
+        }
+        ViewParent parent = view.getParent();
+        while (parent instanceof View) {
+            final View ancestorView = (View) parent;
+            // Hidden group views still draw their childs while they are animated.
+            if (ancestorView.getVisibility() != View.VISIBLE && ancestorView.getAnimation() == null) {
+                return false;
+            }
+            parent = ancestorView.getParent();
+        }
+        return true;
+    }
+
+    /**
+     * Starts a property animation on a view.
+     *
+     * @param view                 View.
+     * @param startDelay           Start delay.
+     * @param instant              TRUE to animate view to its end state instantly.
+     * @param viewsAnimationRun    Run tracking animation.
+     * @param animationEndCallback Callback to run once animation has ended. NULL if there is none.
+     */
+    private void startPropertyAnimation(final View view, final long startDelay, final boolean instant, final ViewsAnimationRun viewsAnimationRun, final Runnable animationEndCallback) {
+        final HardwareLayerAnimatorListener hardwareLayerAnimatorListener = new HardwareLayerAnimatorListener(view, propertyAnimationProvider, viewsAnimationRun, animationEndCallback);
+        viewsAnimationRun.onAnimationStart(hardwareLayerAnimatorListener);
+        hardwareLayerAnimatorListener.start(startDelay, instant);
+    }
+
+    /**
+     * Animator listener of a view's property animation.
+     * It moves view to a hardware layer while it is animated, and restores its previous layer type afterwards.
+     * ViewPropertyAnimator.withLayer() does the same, but requires API 16.
+     * View's property animator is shared by all its animations, so its start delay and duration are restored afterwards too.
+     */
+    private static final class HardwareLayerAnimatorListener implements Animator.AnimatorListener, ViewsAnimationRun.RunningAnimation {
+
+        /**
+         * Animated view.
+         */
+        private final View view;
+
+        /**
+         * Property animation provider.
+         */
+        private final PropertyAnimationProvider propertyAnimationProvider;
+
+        /**
+         * Run tracking animation.
+         */
+        private final ViewsAnimationRun viewsAnimationRun;
+
+        /**
+         * Callback to run once animation has ended. NULL if there is none.
+         */
+        private final Runnable animationEndCallback;
+
+        /**
+         * View's layer type before animation.
+         */
+        private int previousLayerType = View.LAYER_TYPE_NONE;
+
+        /**
+         * View's layer type has been changed.
+         */
+        private boolean layerTypeChanged;
+
+        /**
+         * Start delay of view's property animator before animation.
+         */
+        private long previousStartDelay;
+
+        /**
+         * Duration of view's property animator before animation.
+         */
+        private long previousDuration;
+
+        /**
+         * Animation has ended or has been cancelled.
+         */
+        private boolean ended;
+
+        /**
+         * HardwareLayerAnimatorListener's constructor.
+         *
+         * @param view                      Animated view.
+         * @param propertyAnimationProvider Property animation provider.
+         * @param viewsAnimationRun         Run tracking animation.
+         * @param animationEndCallback      Callback to run once animation has ended. NULL if there is none.
+         */
+        HardwareLayerAnimatorListener(final View view, final PropertyAnimationProvider propertyAnimationProvider, final ViewsAnimationRun viewsAnimationRun, final Runnable animationEndCallback) {
+            this.view = view;
+            this.propertyAnimationProvider = propertyAnimationProvider;
+            this.viewsAnimationRun = viewsAnimationRun;
+            this.animationEndCallback = animationEndCallback;
+        }
+
+        /**
+         * Starts view's property animation.
+         *
+         * @param startDelay Start delay.
+         * @param instant    TRUE to animate view to its end state instantly.
+         */
+        void start(final long startDelay, final boolean instant) {
+            final ViewPropertyAnimator viewPropertyAnimator = view.animate();
+            previousStartDelay = viewPropertyAnimator.getStartDelay();
+            previousDuration = viewPropertyAnimator.getDuration();
+            viewPropertyAnimator.setStartDelay(startDelay);
+            propertyAnimationProvider.provide(view, viewPropertyAnimator);
+            if (instant) {
+                viewPropertyAnimator.setStartDelay(0);
+                viewPropertyAnimator.setDuration(0);
+            }
+            viewPropertyAnimator.setListener(this);
+            viewPropertyAnimator.start();
+        }
+
+        @Override
+        public void onAnimationStart(final Animator animator) {
+            // Layer is built when animation actually starts, not while it waits for its start delay.
+            previousLayerType = view.getLayerType();
+            if (previousLayerType != View.LAYER_TYPE_HARDWARE) {
+                view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+                layerTypeChanged = true;
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(final Animator animator) {
+            // - Report end once, since a cancelled animation also ends.
+            if (ended) {
+                return;
+            }
+            ended = true;
+            stop(false);
+            viewsAnimationRun.onAnimationEnd();
+            if (animationEndCallback != null) {
+                animationEndCallback.run();
+            }
+        }
+
+        @Override
+        public void onAnimationCancel(final Animator animator) {
+        }
+
+        @Override
+        public void onAnimationRepeat(final Animator animator) {
+        }
+
+        @Override
+        public void cancel() {
+            if (!ended) {
+                ended = true;
+                stop(true);
+            }
+        }
+
+        @Override
+        public void end() {
+            if (!ended) {
+                stop(true);
+                start(0, true);
+            }
+        }
+
+        /**
+         * Stops listening to view's property animator, and restores its settings and view's layer type.
+         *
+         * @param cancel TRUE to cancel view's property animation.
+         */
+        private void stop(final boolean cancel) {
+            // - Detach listener from view's property animator, and restore its settings, since it is reused by next animations of the view.
+            final ViewPropertyAnimator viewPropertyAnimator = view.animate();
+            viewPropertyAnimator.setListener(null);
+            if (cancel) {
+                viewPropertyAnimator.cancel();
+            }
+            viewPropertyAnimator.setStartDelay(previousStartDelay);
+            viewPropertyAnimator.setDuration(previousDuration);
+
+            if (layerTypeChanged) {
+                layerTypeChanged = false;
+                view.setLayerType(previousLayerType, null);
+            }
+        }
+
+    }
+
+    /**
+     * Animation listener of a view's animation. It recycles animation once ended if it is pooled, but not once cancelled.
+     */
+    private static final class ViewAnimationListener implements Animation.AnimationListener, ViewsAnimationRun.RunningAnimation {
+
+        /**
+         * Animated view.
+         */
+        private final View view;
+
+        /**
+         * Animation.
+         */
+        private final Animation animation;
+
+        /**
+         * Pool of animation. NULL if it is not pooled.
+         */
+        private final AnimationPool animationPool;
+
+        /**
+         * Run tracking animation.
+         */
+        private final ViewsAnimationRun viewsAnimationRun;
+
+        /**
+         * Callback to run once animation has ended. NULL if there is none.
+         */
+        private final Runnable animationEndCallback;
+
+        /**
+         * Animation has ended or has been cancelled.
+         */
+        private boolean ended;
+
+        /**
+         * ViewAnimationListener's constructor.
+         *
+         * @param view                 Animated view.
+         * @param animation            Animation.
+         * @param animationPool        Pool of animation. NULL if it is not pooled.
+         * @param viewsAnimationRun    Run tracking animation.
+         * @param animationEndCallback Callback to run once animation has ended. NULL if there is none.
+         */
+        ViewAnimationListener(final View view, final Animation animation, final AnimationPool animationPool, final ViewsAnimationRun viewsAnimationRun, final Runnable animationEndCallback) {
+            this.view = view;
+            this.animation = animation;
+            this.animationPool = animationPool;
+            this.viewsAnimationRun = viewsAnimationRun;
+            this.animationEndCallback = animationEndCallback;
+        }
+
+        @Override
+        public void onAnimationEnd(final Animation animation) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            if (animationPool != null) {
+                animationPool.recycle(animation);
+            }
+            reportEnd();
+        }
+
+        /**
+         * Reports animation's end at once, since its view is not drawn and animation would never end.
+         * Animation stays on its view, to be applied if view is drawn later, so it is not recycled.
+         */
+        void endAtOnce() {
+            if (!ended) {
+                ended = true;
+                reportEnd();
+            }
+        }
+
+        /**
+         * Reports animation's end to run and to callback.
+         */
+        private void reportEnd() {
+            viewsAnimationRun.onAnimationEnd();
+            if (animationEndCallback != null) {
+                animationEndCallback.run();
+            }
+        }
+
+        @Override
+        public void onAnimationStart(final Animation animation) {
+        }
+
+        @Override
+        public void onAnimationRepeat(final Animation animation) {
+        }
+
+        @Override
+        public void cancel() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            // - Cleared animation may post its end, from API 16 : it is not recycled, so that its end never reaches a next run.
+            animation.setAnimationListener(null);
+            if (view.getAnimation() == animation) {
+                view.clearAnimation();
+            }
+        }
+
+        @Override
+        public void end() {
+            if (!ended) {
+                animation.reset();
+                animation.setStartOffset(0);
+                animation.setDuration(0);
+                view.startAnimation(animation);
+                if (!isDrawn(view)) {
+                    endAtOnce();
+                }
+            }
+        }
+
+    }
+
 }
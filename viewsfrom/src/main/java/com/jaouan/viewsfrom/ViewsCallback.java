@@ -0,0 +1,18 @@
+package com.jaouan.viewsfrom;
+
+import android.view.View;
+
+import java.util.List;
+
+/**
+ * Views callback, called on main thread once views have been found off main thread.
+ */
+public interface ViewsCallback {
+
+    /**
+     * Views found.
+     * @param views Found views.
+     */
+    void onViewsFound(List<View> views);
+
+}
@@ -4,28 +4,35 @@ import android.content.Context;
 import android.support.annotation.AnimRes;
 import android.support.annotation.IdRes;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.view.View;
 import android.view.ViewGroup;
 
 import com.jaouan.viewsfrom.filters.AggregatedViewFilters;
+import com.jaouan.viewsfrom.filters.AssignableTypeViewFilter;
+import com.jaouan.viewsfrom.filters.BranchExcluderViewFilter;
 import com.jaouan.viewsfrom.filters.ComplementedViewFilter;
 import com.jaouan.viewsfrom.filters.ExcluderViewFilter;
 import com.jaouan.viewsfrom.filters.IdViewFilter;
+import com.jaouan.viewsfrom.filters.ShownViewFilter;
 import com.jaouan.viewsfrom.filters.TagRegexViewFilter;
 import com.jaouan.viewsfrom.filters.TagViewFilter;
 import com.jaouan.viewsfrom.filters.TypeViewFilter;
 import com.jaouan.viewsfrom.filters.ViewFilter;
+import com.jaouan.viewsfrom.filters.ViewFiltersPlanner;
 import com.jaouan.viewsfrom.filters.VisibilityViewFilter;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * Views utils that helps to find views by id, tags, type, ...
  */
-public final class ViewsFinder {
+public final class ViewsFinder implements Iterable<View> {
 
     /**
      * Root view.
@@ -66,6 +73,26 @@ public final class ViewsFinder {
      */
     private boolean addChildsFromFilteredGroupViews = true;
 
+    /**
+     * Cache found views until hierarchy changes.
+     */
+    private boolean cacheResults;
+
+    /**
+     * Evaluations count to sample before reordering filters. 0 if filters are never reordered.
+     */
+    private int filterSamplesCount;
+
+    /**
+     * Query metrics listener. NULL if metrics are not reported.
+     */
+    private QueryMetricsListener queryMetricsListener;
+
+    /**
+     * Compiled view query. NULL if it has to be compiled again.
+     */
+    private CompiledViewQuery compiledViewQuery;
+
     /**
      * ViewsFinder's constructor.
      *
@@ -96,6 +123,7 @@ public final class ViewsFinder {
      */
     public ViewsFinder includingFromViews() {
         this.includeRootView = true;
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -106,6 +134,50 @@ public final class ViewsFinder {
      */
     public ViewsFinder excludingChildsFromFilteredGroupViews() {
         this.addChildsFromFilteredGroupViews = false;
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Specifies to cache found views. Cached views are returned by next finds,
+     * until views are added to, removed from or laid out in root views.
+     * Views finder (or its compiled view query) has to be kept to benefit from its cache.
+     *
+     * @return View finder.
+     */
+    public ViewsFinder cached() {
+        this.cacheResults = true;
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Specifies to reorder filters at runtime : pass rates and costs of filters are sampled over their first evaluations,
+     * then cheap filters rejecting most views are evaluated first. Useful when custom filters have unknown costs.
+     * Filters, custom ones included, must not depend on each other's order.
+     *
+     * @param samplesCount Evaluations count to sample before reordering filters, kept by views finder until it is modified.
+     * @return View finder.
+     */
+    public ViewsFinder withAdaptiveFilterOrder(final int samplesCount) {
+        FunctionUtils.checkParameterIsNotNegative("samplesCount", samplesCount);
+        this.filterSamplesCount = samplesCount;
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Specifies a listener reporting metrics of each find : visited views, evaluations and rejections of each filter,
+     * found views, elapsed time, and whether a cache or an index has been used.
+     * Finds, visits and their shortcuts {@see findFirst}, {@see any}, {@see count} and {@see limit} are measured, but not iterations.
+     * Views of views finders concatenated before with {@see andFrom} are measured with current one, without counts of their own filters.
+     *
+     * @param queryMetricsListener Query metrics listener. NULL to stop reporting metrics.
+     * @return View finder.
+     */
+    public ViewsFinder withMetricsListener(@Nullable final QueryMetricsListener queryMetricsListener) {
+        this.queryMetricsListener = queryMetricsListener;
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -120,33 +192,82 @@ public final class ViewsFinder {
         return new ViewsFinder(this, rootViews);
     }
 
+    /**
+     * Compiles views finder into an immutable view query, which can be run many times.
+     * Filters are planned once : merged, simplified and ordered by estimated cost.
+     * Views finder keeps its compiled view query until it is modified.
+     *
+     * @return Compiled view query.
+     */
+    public CompiledViewQuery compile() {
+        final CompiledViewQuery nestedCompiledViewQuery = nestedViewsFinder != null ? nestedViewsFinder.compile() : null;
+        if (compiledViewQuery == null || compiledViewQuery.getNestedCompiledViewQuery() != nestedCompiledViewQuery) {
+            invalidateCompiledViewQuery();
+            final AggregatedViewFilters plannedViewFilter = ViewFiltersPlanner.plan(viewFilters, filterSamplesCount);
+            compiledViewQuery = new CompiledViewQuery(nestedCompiledViewQuery, rootViews, plannedViewFilter, ViewFiltersPlanner.getIndexableViewFilter(plannedViewFilter), includeRootView, addChildsFromFilteredGroupViews, viewComparator, cacheResults, queryMetricsListener);
+        }
+        return compiledViewQuery;
+    }
+
+    /**
+     * Invalidates compiled view query, after views finder has been modified.
+     */
+    private void invalidateCompiledViewQuery() {
+        if (compiledViewQuery != null) {
+            compiledViewQuery.release();
+            compiledViewQuery = null;
+        }
+    }
+
     /**
      * Finds and lists all found views.
      */
     public List<View> find() {
-        final List<View> views = new ArrayList<>();
+        return compile().find();
+    }
 
-        // - Add all views from nested views finder.
-        if (nestedViewsFinder != null) {
-            views.addAll(nestedViewsFinder.find());
-        }
+    /**
+     * Finds all views, and adds them to a list.
+     * Once views finder is compiled, nothing is allocated unless views have to be ordered, or a cache or an index is used.
+     *
+     * @param views List where found views will be added.
+     * @return Views list.
+     */
+    public List<View> find(@NonNull final List<View> views) {
+        return compile().find(views);
+    }
 
-        // - For each root view.
-        for (final ViewGroup rootView : rootViews) {
-            // - Include root view to views find if necessary.
-            if (includeRootView) {
-                views.add(rootView);
-            }
-            // - Find all childs.
-            ViewsHelper.findChilds(rootView, views, new AggregatedViewFilters(viewFilters), addChildsFromFilteredGroupViews);
-        }
+    /**
+     * Captures a snapshot of root views hierarchies, to find views in it later, from any thread. Must be called on main thread.
+     *
+     * @return Views snapshot.
+     */
+    public ViewsSnapshot snapshot() {
+        return compile().snapshot();
+    }
 
-        // - Sort views if necessary.
-        if (viewComparator != null) {
-            Collections.sort(views, viewComparator);
-        }
+    /**
+     * Finds and lists all views of a snapshot, from any thread. A frozen hierarchy can be queried many times this way,
+     * during a multi-step animation for example, without walking views again.
+     *
+     * @param viewsSnapshot Views snapshot, which must contain all root views.
+     * @return Found views.
+     */
+    public List<View> find(@NonNull final ViewsSnapshot viewsSnapshot) {
+        return compile().find(viewsSnapshot);
+    }
 
-        return views;
+    /**
+     * Finds views off main thread. Hierarchies are captured now, filters and comparator are evaluated by executor,
+     * and callback is called on main thread. Views must not be changed until callback is called.
+     * If executor is a fork-join pool, filters are evaluated in parallel by its threads, so custom filters must be thread-safe.
+     *
+     * @param executor      Executor evaluating filters.
+     * @param viewsCallback Views callback. Can be NULL.
+     * @return Future found views.
+     */
+    public Future<List<View>> findAsync(@NonNull final Executor executor, @Nullable final ViewsCallback viewsCallback) {
+        return compile().findAsync(executor, viewsCallback);
     }
 
     /**
@@ -155,12 +276,75 @@ public final class ViewsFinder {
      * @param viewIteration View iteration.
      */
     public void forEach(final ViewIteration viewIteration) {
-        FunctionUtils.checkParameterIsNotNull("viewIteration", viewIteration);
-        final List<View> views = find();
-        final int viewCount = views.size();
-        for (int viewIndex = 0; viewIndex < viewCount; viewIndex++) {
-            viewIteration.onView(views.get(viewIndex), viewIndex, viewCount);
-        }
+        compile().forEach(viewIteration);
+    }
+
+    /**
+     * Visits views while they are found, without listing them first. Visit stops when visitor returns FALSE.
+     * If views are ordered, they all have to be found before the first one is visited.
+     *
+     * @param viewVisitor View visitor.
+     * @return Visited views count.
+     */
+    public int visit(@NonNull final ViewVisitor viewVisitor) {
+        return compile().visit(viewVisitor);
+    }
+
+    /**
+     * Iterates lazily all found views. Views are found while iterating, so an iteration can stop without walking all views.
+     * If views are ordered, they all have to be found before the first one is returned.
+     *
+     * @return Views iterator.
+     */
+    @Override
+    public Iterator<View> iterator() {
+        return compile().iterator();
+    }
+
+    /**
+     * Finds the first view. Stops as soon as it is found.
+     *
+     * @return First found view, or NULL if there is none.
+     */
+    public View findFirst() {
+        return compile().findFirst();
+    }
+
+    /**
+     * Checks if any view is found. Stops as soon as a view is found.
+     *
+     * @return TRUE if at least one view is found.
+     */
+    public boolean any() {
+        return compile().any();
+    }
+
+    /**
+     * Counts found views, without listing them.
+     *
+     * @return Found views count.
+     */
+    public int count() {
+        return compile().count();
+    }
+
+    /**
+     * Finds and lists first found views. Stops as soon as enough views are found.
+     *
+     * @param maxViewsCount Maximum views count.
+     * @return First found views.
+     */
+    public List<View> limit(final int maxViewsCount) {
+        return compile().limit(maxViewsCount);
+    }
+
+    /**
+     * Changes all found views in one pass. Changes are defined on returned views mutator, then applied by its commit().
+     *
+     * @return Views mutator.
+     */
+    public ViewsMutator apply() {
+        return new ViewsMutator(this);
     }
 
     /**
@@ -186,6 +370,17 @@ public final class ViewsFinder {
         return new ViewsAnimator(this, animationProvider);
     }
 
+    /**
+     * Animates all found views with property animators. Views are moved to a hardware layer while they are animated.
+     *
+     * @param propertyAnimationProvider Property animation provider.
+     * @return Views animator.
+     */
+    public ViewsAnimator animateWith(final PropertyAnimationProvider propertyAnimationProvider) {
+        FunctionUtils.checkParameterIsNotNull("propertyAnimationProvider", propertyAnimationProvider);
+        return new ViewsAnimator(this, propertyAnimationProvider);
+    }
+
     /**
      * Orders views with specific comparator.
      *
@@ -195,6 +390,7 @@ public final class ViewsFinder {
     public ViewsFinder orderedBy(@NonNull final Comparator<View> viewComparator) {
         FunctionUtils.checkParameterIsNotNull("viewComparator", viewComparator);
         this.viewComparator = viewComparator;
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -207,6 +403,7 @@ public final class ViewsFinder {
     public ViewsFinder filteredWith(@NonNull final ViewFilter viewFilter) {
         FunctionUtils.checkParameterIsNotNull("viewFilter", viewFilter);
         viewFilters.add(viewFilter);
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -229,6 +426,19 @@ public final class ViewsFinder {
     public ViewsFinder withVisibility(final int... viewVisibilities) {
         FunctionUtils.checkParameterArrayIsNotNull("viewVisibilities", viewVisibilities);
         viewFilters.add(complementFilterIfNecessary(new VisibilityViewFilter(viewVisibilities)));
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Filters views that are shown : visible, and not in a GONE or INVISIBLE group view.
+     * Branches of hidden group views are skipped entirely.
+     *
+     * @return View finder.
+     */
+    public ViewsFinder onlyShownViews() {
+        viewFilters.add(new ShownViewFilter());
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -241,6 +451,7 @@ public final class ViewsFinder {
     public ViewsFinder withTag(final String... tags) {
         FunctionUtils.checkParameterIsNotNull("tags", tags);
         viewFilters.add(complementFilterIfNecessary(new TagViewFilter(tags)));
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -253,6 +464,23 @@ public final class ViewsFinder {
     public ViewsFinder withTagRegex(final String... tagRegexes) {
         FunctionUtils.checkParameterArrayIsNotNull("tagRegexes", tagRegexes);
         viewFilters.add(complementFilterIfNecessary(new TagRegexViewFilter(tagRegexes)));
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Filters view's tag using regex, caching match results of a given count of tags. Can be used with {@see not}.
+     * Cache hits and misses are reported by {@see QueryMetrics}.
+     *
+     * @param cacheSize  Tags count whose match results are cached, least recently used ones being evicted first. 0 to disable cache.
+     * @param tagRegexes View's tag regexes to allow.
+     * @return View finder.
+     */
+    public ViewsFinder withTagRegex(final int cacheSize, final String... tagRegexes) {
+        FunctionUtils.checkParameterIsNotNegative("cacheSize", cacheSize);
+        FunctionUtils.checkParameterArrayIsNotNull("tagRegexes", tagRegexes);
+        viewFilters.add(complementFilterIfNecessary(new TagRegexViewFilter(tagRegexes, cacheSize)));
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -265,6 +493,7 @@ public final class ViewsFinder {
     public ViewsFinder withId(@IdRes final int... identifiers) {
         FunctionUtils.checkParameterArrayIsNotNull("identifiers", identifiers);
         viewFilters.add(complementFilterIfNecessary(new IdViewFilter(identifiers)));
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -278,6 +507,23 @@ public final class ViewsFinder {
     public final ViewsFinder withType(final Class<? extends View>... types) {
         FunctionUtils.checkParameterArrayIsNotNull("types", types);
         viewFilters.add(complementFilterIfNecessary(new TypeViewFilter(types)));
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Filters view's type, including subclasses : withTypeAssignableTo(TextView.class) keeps buttons and edit texts too.
+     * Decisions are cached by view class. Can be used with {@see not}.
+     *
+     * @param types View's types to allow, with their subclasses.
+     * @return View finder.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final ViewsFinder withTypeAssignableTo(final Class<? extends View>... types) {
+        FunctionUtils.checkParameterArrayIsNotNull("types", types);
+        viewFilters.add(complementFilterIfNecessary(new AssignableTypeViewFilter(types)));
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -305,6 +551,20 @@ public final class ViewsFinder {
     public ViewsFinder excludeView(final View... views) {
         FunctionUtils.checkParameterArrayIsNotNull("views", views);
         viewFilters.add(new ExcluderViewFilter(views));
+        invalidateCompiledViewQuery();
+        return this;
+    }
+
+    /**
+     * Excludes views and all their childs. Branches of excluded views are skipped entirely.
+     *
+     * @param views Views to exclude with their childs.
+     * @return View finder.
+     */
+    public ViewsFinder excludeViewAndChilds(final View... views) {
+        FunctionUtils.checkParameterArrayIsNotNull("views", views);
+        viewFilters.add(new BranchExcluderViewFilter(views));
+        invalidateCompiledViewQuery();
         return this;
     }
 
@@ -3,9 +3,15 @@ package com.jaouan.viewsfrom;
 import android.support.annotation.NonNull;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
 
+import com.jaouan.viewsfrom.filters.AggregatedViewFilters;
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.ViewAttributes;
+import com.jaouan.viewsfrom.filters.ViewAttributesFilter;
 import com.jaouan.viewsfrom.filters.ViewFilter;
 
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -13,6 +19,64 @@ import java.util.List;
  */
 final class ViewsHelper {
 
+    /**
+     * View filter that keeps all views.
+     */
+    static final ViewFilter ALL_VIEWS_FILTER = new ViewAttributesFilter() {
+        @Override
+        public boolean filter(final View view) {
+            return true;
+        }
+
+        @Override
+        public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+            return true;
+        }
+
+        @Override
+        public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+            return true;
+        }
+    };
+
+    /**
+     * Comparator of views positions in a pre-order traversal of their common ancestor.
+     * Views without common ancestor are considered equal.
+     */
+    static final Comparator<View> PRE_ORDER_COMPARATOR = new Comparator<View>() {
+        @Override
+        public int compare(final View view1, final View view2) {
+            // - Bring both views to the same depth. An ancestor comes before its descendants.
+            View ancestorView1 = view1;
+            View ancestorView2 = view2;
+            int depth1 = getDepth(view1);
+            int depth2 = getDepth(view2);
+            for (; depth1 > depth2; depth1--) {
+                ancestorView1 = (View) ancestorView1.getParent();
+            }
+            for (; depth2 > depth1; depth2--) {
+                ancestorView2 = (View) ancestorView2.getParent();
+            }
+            if (ancestorView1 == ancestorView2) {
+                return getDepth(view1) - getDepth(view2);
+            }
+
+            // - Climb up to siblings, then compare their indexes.
+            while (ancestorView1.getParent() != ancestorView2.getParent()) {
+                if (!(ancestorView1.getParent() instanceof View) || !(ancestorView2.getParent() instanceof View)) {
+                    return 0;
+                }
+                ancestorView1 = (View) ancestorView1.getParent();
+                ancestorView2 = (View) ancestorView2.getParent();
+            }
+            if (!(ancestorView1.getParent() instanceof ViewGroup)) {
+                return 0;
+            }
+            final ViewGroup parentView = (ViewGroup) ancestorView1.getParent();
+            return parentView.indexOfChild(ancestorView1) - parentView.indexOfChild(ancestorView2);
+        }
+    };
+
     /**
      * Private constructor to disallow instantiation.
      */
@@ -20,26 +84,51 @@ final class ViewsHelper {
     }
 
     /**
-     * Helps to find recursivly all childs in a view group.
+     * Helps to find all childs in a view group, in pre-order.
      *
+     * @param viewsTraversal                  Views traversal to use.
      * @param viewGroup                       View group.
      * @param ordoredChilds                   Childs find where visible childs will be added.
      * @param viewFilter                      View filter.
      * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
      * @return Childs find.
      */
-    static List<View> findChilds(@NonNull final ViewGroup viewGroup, @NonNull final List<View> ordoredChilds, @NonNull final ViewFilter viewFilter, final boolean addChildsFromFilteredGroupViews) {
-        for (int childViewIndex = 0; childViewIndex < viewGroup.getChildCount(); childViewIndex++) {
-            final View childView = viewGroup.getChildAt(childViewIndex);
-            final boolean isNotFiltered = viewFilter.filter(childView);
-            if (isNotFiltered) {
-                ordoredChilds.add(childView);
-            }
-            if (childView instanceof ViewGroup && (isNotFiltered || addChildsFromFilteredGroupViews)) {
-                findChilds((ViewGroup) childView, ordoredChilds, viewFilter, addChildsFromFilteredGroupViews);
-            }
+    static List<View> findChilds(@NonNull final ViewsTraversal viewsTraversal, @NonNull final ViewGroup viewGroup, @NonNull final List<View> ordoredChilds, @NonNull final ViewFilter viewFilter, final boolean addChildsFromFilteredGroupViews) {
+        viewsTraversal.reset(viewGroup, viewFilter, addChildsFromFilteredGroupViews);
+        View childView;
+        while ((childView = viewsTraversal.next()) != null) {
+            ordoredChilds.add(childView);
         }
+        viewsTraversal.clear();
         return ordoredChilds;
     }
 
+    /**
+     * Gets depth of a view : its ancestor views count.
+     *
+     * @param view View.
+     * @return View's depth.
+     */
+    static int getDepth(@NonNull final View view) {
+        int depth = 0;
+        for (ViewParent parentView = view.getParent(); parentView instanceof View; parentView = parentView.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Gets the branch view filter of a view filter, if it can reject whole branches.
+     *
+     * @param viewFilter View filter.
+     * @return Branch view filter, or NULL if the view filter never rejects whole branches.
+     */
+    static BranchViewFilter getBranchViewFilter(@NonNull final ViewFilter viewFilter) {
+        if (!(viewFilter instanceof BranchViewFilter)
+                || (viewFilter instanceof AggregatedViewFilters && !((AggregatedViewFilters) viewFilter).hasBranchViewFilters())) {
+            return null;
+        }
+        return (BranchViewFilter) viewFilter;
+    }
+
 }
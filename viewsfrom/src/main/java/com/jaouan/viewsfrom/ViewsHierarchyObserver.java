@@ -0,0 +1,309 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Views hierarchy observer, that notifies listeners of views added to or removed from an observed root view's branch.
+ * It installs itself as hierarchy change listener of every group view of observed branches, chaining any previous one,
+ * and puts previous ones back once branches are not observed anymore.
+ * Listeners are kept in root view's tags, so they never outlive their root view.
+ * <p>
+ * Previous listeners are read from a hidden framework field, that apps targeting Android 10 or later may not be allowed to read.
+ * In that case, nothing is installed, so that no listener is ever lost, and {@link #isSupported()} is FALSE.
+ */
+final class ViewsHierarchyObserver implements ViewGroup.OnHierarchyChangeListener {
+
+    /**
+     * Hierarchy listener.
+     */
+    interface HierarchyListener {
+
+        /**
+         * Called when a branch has been added to the observed root view's branch.
+         *
+         * @param branchView Added branch view.
+         */
+        void onBranchAdded(View branchView);
+
+        /**
+         * Called when a branch has been removed from the observed root view's branch.
+         *
+         * @param branchView Removed branch view.
+         */
+        void onBranchRemoved(View branchView);
+
+    }
+
+    /**
+     * Filter rejecting branches of observed views, so that their observers are left installed.
+     */
+    private static final BranchViewFilter UNOBSERVED_BRANCHES_FILTER = new BranchViewFilter() {
+        @Override
+        public boolean filterBranch(final View view) {
+            return getHierarchyListeners(view) == null;
+        }
+
+        @Override
+        public boolean filter(final View view) {
+            return true;
+        }
+    };
+
+    /**
+     * Hierarchy change listener field of group views, as framework doesn't expose it. NULL if it can't be read.
+     */
+    private static Field onHierarchyChangeListenerField = getOnHierarchyChangeListenerField();
+
+    /**
+     * Hierarchy change listener that was set on the observed group view before this observer.
+     */
+    private final ViewGroup.OnHierarchyChangeListener previousOnHierarchyChangeListener;
+
+    /**
+     * ViewsHierarchyObserver's constructor.
+     *
+     * @param previousOnHierarchyChangeListener Hierarchy change listener previously set on the group view. Can be NULL.
+     */
+    private ViewsHierarchyObserver(final ViewGroup.OnHierarchyChangeListener previousOnHierarchyChangeListener) {
+        this.previousOnHierarchyChangeListener = previousOnHierarchyChangeListener;
+    }
+
+    /**
+     * Checks if hierarchy changes can be observed, that is if hierarchy change listeners of group views can be read.
+     *
+     * @return TRUE if hierarchy changes can be observed.
+     */
+    static boolean isSupported() {
+        return onHierarchyChangeListenerField != null;
+    }
+
+    /**
+     * Sets hierarchy change listener field of group views, so that tests can simulate a device where it can't be read.
+     *
+     * @param field Hierarchy change listener field. NULL if it can't be read.
+     * @return Previous hierarchy change listener field.
+     */
+    static Field setOnHierarchyChangeListenerField(final Field field) {
+        final Field previousField = onHierarchyChangeListenerField;
+        onHierarchyChangeListenerField = field;
+        return previousField;
+    }
+
+    /**
+     * Adds a hierarchy listener to a root view.
+     *
+     * @param rootView          Root view.
+     * @param hierarchyListener Hierarchy listener.
+     * @return TRUE if listener has been added, FALSE if hierarchy changes can't be observed.
+     */
+    static boolean addHierarchyListener(@NonNull final ViewGroup rootView, @NonNull final HierarchyListener hierarchyListener) {
+        if (!isSupported()) {
+            return false;
+        }
+        List<HierarchyListener> hierarchyListeners = getHierarchyListeners(rootView);
+        if (hierarchyListeners == null) {
+            hierarchyListeners = new ArrayList<>();
+            rootView.setTag(R.id.viewsfrom_hierarchy_listeners, hierarchyListeners);
+            install(rootView);
+        }
+        hierarchyListeners.add(hierarchyListener);
+        return true;
+    }
+
+    /**
+     * Removes a hierarchy listener from a root view.
+     *
+     * @param rootView          Root view.
+     * @param hierarchyListener Hierarchy listener.
+     */
+    static void removeHierarchyListener(@NonNull final ViewGroup rootView, @NonNull final HierarchyListener hierarchyListener) {
+        final List<HierarchyListener> hierarchyListeners = getHierarchyListeners(rootView);
+        if (hierarchyListeners != null) {
+            hierarchyListeners.remove(hierarchyListener);
+            if (hierarchyListeners.isEmpty()) {
+                rootView.setTag(R.id.viewsfrom_hierarchy_listeners, null);
+                if (!isObserved(rootView)) {
+                    uninstall(rootView);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onChildViewAdded(final View parent, final View child) {
+        install(child);
+        dispatch(parent, child, true);
+        if (previousOnHierarchyChangeListener != null) {
+            previousOnHierarchyChangeListener.onChildViewAdded(parent, child);
+        }
+    }
+
+    @Override
+    public void onChildViewRemoved(final View parent, final View child) {
+        dispatch(parent, child, false);
+        uninstall(child);
+        if (previousOnHierarchyChangeListener != null) {
+            previousOnHierarchyChangeListener.onChildViewRemoved(parent, child);
+        }
+    }
+
+    /**
+     * Installs hierarchy observer on all group views of a branch.
+     *
+     * @param branchView Branch view.
+     */
+    private static void install(final View branchView) {
+        if (!(branchView instanceof ViewGroup)) {
+            return;
+        }
+        final ViewGroup branchGroupView = (ViewGroup) branchView;
+        installOn(branchGroupView);
+        final ViewsTraversal viewsTraversal = new ViewsTraversal().reset(branchGroupView, ViewsHelper.ALL_VIEWS_FILTER, true);
+        View childView;
+        while ((childView = viewsTraversal.next()) != null) {
+            if (childView instanceof ViewGroup) {
+                installOn((ViewGroup) childView);
+            }
+        }
+    }
+
+    /**
+     * Installs hierarchy observer on a group view, chaining its current hierarchy change listener.
+     *
+     * @param groupView Group view.
+     */
+    private static void installOn(final ViewGroup groupView) {
+        final ViewGroup.OnHierarchyChangeListener onHierarchyChangeListener = getOnHierarchyChangeListener(groupView);
+        if (!(onHierarchyChangeListener instanceof ViewsHierarchyObserver)) {
+            groupView.setOnHierarchyChangeListener(new ViewsHierarchyObserver(onHierarchyChangeListener));
+        }
+    }
+
+    /**
+     * Uninstalls hierarchy observer from all group views of a branch that is not observed anymore.
+     * Branches of observed views inside it keep their observers.
+     *
+     * @param branchView Branch view, that has just been removed from observed branches, or whose ancestors are not observed.
+     */
+    private static void uninstall(final View branchView) {
+        if (!(branchView instanceof ViewGroup) || getHierarchyListeners(branchView) != null) {
+            return;
+        }
+        final ViewGroup branchGroupView = (ViewGroup) branchView;
+        uninstallFrom(branchGroupView);
+        final ViewsTraversal viewsTraversal = new ViewsTraversal().reset(branchGroupView, UNOBSERVED_BRANCHES_FILTER, true);
+        View childView;
+        while ((childView = viewsTraversal.next()) != null) {
+            if (childView instanceof ViewGroup) {
+                uninstallFrom((ViewGroup) childView);
+            }
+        }
+    }
+
+    /**
+     * Uninstalls hierarchy observer from a group view, putting its previous hierarchy change listener back.
+     *
+     * @param groupView Group view.
+     */
+    private static void uninstallFrom(final ViewGroup groupView) {
+        final ViewGroup.OnHierarchyChangeListener onHierarchyChangeListener = getOnHierarchyChangeListener(groupView);
+        if (onHierarchyChangeListener instanceof ViewsHierarchyObserver) {
+            groupView.setOnHierarchyChangeListener(((ViewsHierarchyObserver) onHierarchyChangeListener).previousOnHierarchyChangeListener);
+        }
+    }
+
+    /**
+     * Checks if a view or one of its ancestors is observed.
+     *
+     * @param view View.
+     * @return TRUE if view is in an observed branch.
+     */
+    private static boolean isObserved(final View view) {
+        View ancestorView = view;
+        while (ancestorView != null) {
+            if (getHierarchyListeners(ancestorView) != null) {
+                return true;
+            }
+            final ViewParent ancestorParent = ancestorView.getParent();
+            ancestorView = ancestorParent instanceof View ? (View) ancestorParent : null;
+        }
+        return false;
+    }
+
+    /**
+     * Gets hierarchy change listener of a group view.
+     *
+     * @param groupView Group view.
+     * @return Hierarchy change listener, or NULL if there is none.
+     */
+    private static ViewGroup.OnHierarchyChangeListener getOnHierarchyChangeListener(final ViewGroup groupView) {
+        try {
+            return (ViewGroup.OnHierarchyChangeListener) onHierarchyChangeListenerField.get(groupView);
+        } catch (final IllegalAccessException exception) {
+            // Field has been made accessible, and is only used when it could.
+            throw new IllegalStateException("Hierarchy change listener can't be read.", exception);
+        }
+    }
+
+    /**
+     * Gets hierarchy change listener field of group views.
+     *
+     * @return Hierarchy change listener field, or NULL if it can't be accessed.
+     */
+    private static Field getOnHierarchyChangeListenerField() {
+        try {
+            final Field onHierarchyChangeListenerField = ViewGroup.class.getDeclaredField("mOnHierarchyChangeListener");
+            onHierarchyChangeListenerField.setAccessible(true);
+            return onHierarchyChangeListenerField;
+        } catch (final Exception exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Dispatches a hierarchy change to listeners of all observed ancestors.
+     *
+     * @param parent     Parent of added or removed branch.
+     * @param branchView Added or removed branch view.
+     * @param added      TRUE if branch has been added, FALSE if removed.
+     */
+    private static void dispatch(final View parent, final View branchView, final boolean added) {
+        View ancestorView = parent;
+        while (ancestorView != null) {
+            final List<HierarchyListener> hierarchyListeners = getHierarchyListeners(ancestorView);
+            if (hierarchyListeners != null) {
+                // Iterated backward, since listeners may remove themselves.
+                for (int hierarchyListenerIndex = hierarchyListeners.size() - 1; hierarchyListenerIndex >= 0; hierarchyListenerIndex--) {
+                    if (added) {
+                        hierarchyListeners.get(hierarchyListenerIndex).onBranchAdded(branchView);
+                    } else {
+                        hierarchyListeners.get(hierarchyListenerIndex).onBranchRemoved(branchView);
+                    }
+                }
+            }
+            final ViewParent ancestorParent = ancestorView.getParent();
+            ancestorView = ancestorParent instanceof View ? (View) ancestorParent : null;
+        }
+    }
+
+    /**
+     * Gets hierarchy listeners of a view.
+     *
+     * @param view View.
+     * @return Hierarchy listeners, or NULL if view is not observed.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<HierarchyListener> getHierarchyListeners(final View view) {
+        return (List<HierarchyListener>) view.getTag(R.id.viewsfrom_hierarchy_listeners);
+    }
+
+}
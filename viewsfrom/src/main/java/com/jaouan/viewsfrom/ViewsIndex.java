@@ -0,0 +1,430 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.IdViewFilter;
+import com.jaouan.viewsfrom.filters.TagViewFilter;
+import com.jaouan.viewsfrom.filters.TypeViewFilter;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Views index of a root view's childs, by id, tag and type.
+ * Once attached, views finders from this root view answer "withId", "withTag" and "withType" queries from the index,
+ * in a time proportional to matching views count instead of views count.
+ * <p>
+ * Index is kept up to date when views are added or removed, by observing hierarchy changes of all group views of the branch.
+ * Hierarchy change listeners set on those group views are still called.
+ * Where they can't be read, on Android 10 or later, index can't be kept up to date : it isn't attached, and finders traverse views.
+ * Ids and tags changes have to be done through {@link #setId(View, int)} and {@link #setTag(View, Object)},
+ * or notified with {@link #refresh(View)}.
+ */
+public final class ViewsIndex {
+
+    /**
+     * Root view.
+     */
+    private final ViewGroup rootView;
+
+    /**
+     * Views by id.
+     */
+    private final SparseArray<List<View>> viewsById = new SparseArray<>();
+
+    /**
+     * Views by tag.
+     */
+    private final Map<Object, List<View>> viewsByTag = new HashMap<>();
+
+    /**
+     * Views by type.
+     */
+    private final Map<Class<?>, List<View>> viewsByType = new HashMap<>();
+
+    /**
+     * Indexed views, with the id and tag they are indexed with.
+     */
+    private final Map<View, Object[]> indexedViews = new IdentityHashMap<>();
+
+    /**
+     * Hierarchy listener, that keeps index up to date.
+     */
+    private final ViewsHierarchyObserver.HierarchyListener hierarchyListener = new ViewsHierarchyObserver.HierarchyListener() {
+        @Override
+        public void onBranchAdded(final View branchView) {
+            indexBranch(branchView);
+        }
+
+        @Override
+        public void onBranchRemoved(final View branchView) {
+            unindexBranch(branchView);
+        }
+    };
+
+    /**
+     * ViewsIndex's constructor.
+     *
+     * @param rootView Root view.
+     */
+    private ViewsIndex(@NonNull final ViewGroup rootView) {
+        this.rootView = rootView;
+    }
+
+    /**
+     * Attaches an index to a root view, or gets the already attached one.
+     * If hierarchy changes can't be observed, returned index is not attached and indexes nothing.
+     *
+     * @param rootView Root view.
+     * @return Views index.
+     */
+    public static ViewsIndex attach(@NonNull final ViewGroup rootView) {
+        FunctionUtils.checkParameterIsNotNull("rootView", rootView);
+        ViewsIndex viewsIndex = of(rootView);
+        if (viewsIndex == null) {
+            viewsIndex = new ViewsIndex(rootView);
+            if (ViewsHierarchyObserver.addHierarchyListener(rootView, viewsIndex.hierarchyListener)) {
+                viewsIndex.indexChilds(rootView);
+                rootView.setTag(R.id.viewsfrom_index, viewsIndex);
+            }
+        }
+        return viewsIndex;
+    }
+
+    /**
+     * Gets index attached to a root view.
+     *
+     * @param rootView Root view.
+     * @return Views index, or NULL if none is attached.
+     */
+    public static ViewsIndex of(@NonNull final ViewGroup rootView) {
+        return (ViewsIndex) rootView.getTag(R.id.viewsfrom_index);
+    }
+
+    /**
+     * Detaches index from its root view.
+     */
+    public void detach() {
+        ViewsHierarchyObserver.removeHierarchyListener(rootView, hierarchyListener);
+        if (of(rootView) == this) {
+            rootView.setTag(R.id.viewsfrom_index, null);
+        }
+        viewsById.clear();
+        viewsByTag.clear();
+        viewsByType.clear();
+        indexedViews.clear();
+    }
+
+    /**
+     * Sets a view's id, and updates index.
+     *
+     * @param view       View.
+     * @param identifier View's id.
+     */
+    public void setId(@NonNull final View view, final int identifier) {
+        FunctionUtils.checkParameterIsNotNull("view", view);
+        view.setId(identifier);
+        if (isAttached()) {
+            refreshView(view);
+        }
+    }
+
+    /**
+     * Sets a view's tag, and updates index.
+     *
+     * @param view View.
+     * @param tag  View's tag.
+     */
+    public void setTag(@NonNull final View view, final Object tag) {
+        FunctionUtils.checkParameterIsNotNull("view", view);
+        view.setTag(tag);
+        if (isAttached()) {
+            refreshView(view);
+        }
+    }
+
+    /**
+     * Updates index of a view and all its childs, after their ids or tags have been changed without the index.
+     *
+     * @param branchView Branch view.
+     */
+    public void refresh(@NonNull final View branchView) {
+        FunctionUtils.checkParameterIsNotNull("branchView", branchView);
+        if (!isAttached()) {
+            return;
+        }
+        if (branchView == rootView) {
+            indexChilds(rootView);
+        } else {
+            indexBranch(branchView);
+        }
+    }
+
+    /**
+     * Checks if index is attached to its root view.
+     *
+     * @return TRUE if index is attached.
+     */
+    private boolean isAttached() {
+        return of(rootView) == this;
+    }
+
+    /**
+     * Finds root view's childs satisfying a filter, looking up candidates from the index, in pre-order.
+     *
+     * @param ordoredChilds                   Childs find where childs will be added.
+     * @param viewFilter                      View filter.
+     * @param indexableViewFilter             Indexable view filter, satisfied by all found childs.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     * @return TRUE if index could answer, FALSE if indexable filter is not supported.
+     */
+    boolean findChilds(@NonNull final List<View> ordoredChilds, @NonNull final ViewFilter viewFilter, @NonNull final ViewFilter indexableViewFilter, final boolean addChildsFromFilteredGroupViews) {
+        final BranchViewFilter branchViewFilter = ViewsHelper.getBranchViewFilter(viewFilter);
+        if (branchViewFilter != null && !branchViewFilter.filterBranch(rootView)) {
+            return true;
+        }
+
+        // - Add candidates satisfying the filter.
+        final int firstChildIndex = ordoredChilds.size();
+        if (indexableViewFilter instanceof IdViewFilter) {
+            final int[] identifiers = ((IdViewFilter) indexableViewFilter).getViewIdentifiers();
+            for (int identifierIndex = 0; identifierIndex < identifiers.length; identifierIndex++) {
+                if (!isDuplicate(identifiers, identifierIndex)) {
+                    addCandidates(viewsById.get(identifiers[identifierIndex]), ordoredChilds, viewFilter, branchViewFilter, addChildsFromFilteredGroupViews);
+                }
+            }
+        } else if (indexableViewFilter instanceof TagViewFilter || indexableViewFilter instanceof TypeViewFilter) {
+            final Map<?, List<View>> viewsByKey = indexableViewFilter instanceof TagViewFilter ? viewsByTag : viewsByType;
+            final Object[] keys = indexableViewFilter instanceof TagViewFilter ? ((TagViewFilter) indexableViewFilter).getObjects() : ((TypeViewFilter) indexableViewFilter).getObjects();
+            for (int keyIndex = 0; keyIndex < keys.length; keyIndex++) {
+                if (!isDuplicate(keys, keyIndex)) {
+                    addCandidates(viewsByKey.get(keys[keyIndex]), ordoredChilds, viewFilter, branchViewFilter, addChildsFromFilteredGroupViews);
+                }
+            }
+        } else {
+            return false;
+        }
+
+        // - Sort added childs in pre-order.
+        if (ordoredChilds.size() - firstChildIndex > 1) {
+            Collections.sort(ordoredChilds.subList(firstChildIndex, ordoredChilds.size()), ViewsHelper.PRE_ORDER_COMPARATOR);
+        }
+        return true;
+    }
+
+    /**
+     * Adds candidates that would be found by a traversal of root view's childs.
+     *
+     * @param candidateViews                  Candidate views. Can be NULL.
+     * @param ordoredChilds                   Childs find where candidates will be added.
+     * @param viewFilter                      View filter.
+     * @param branchViewFilter                Branch view filter. Can be NULL.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     */
+    private void addCandidates(final List<View> candidateViews, final List<View> ordoredChilds, final ViewFilter viewFilter, final BranchViewFilter branchViewFilter, final boolean addChildsFromFilteredGroupViews) {
+        if (candidateViews == null) {
+            return;
+        }
+        final int candidateViewsCount = candidateViews.size();
+        for (int candidateViewIndex = 0; candidateViewIndex < candidateViewsCount; candidateViewIndex++) {
+            final View candidateView = candidateViews.get(candidateViewIndex);
+            if ((branchViewFilter == null || branchViewFilter.filterBranch(candidateView))
+                    && viewFilter.filter(candidateView)
+                    && isReachable(candidateView, viewFilter, branchViewFilter, addChildsFromFilteredGroupViews)) {
+                ordoredChilds.add(candidateView);
+            }
+        }
+    }
+
+    /**
+     * Checks if a view would be reached by a traversal of root view's childs.
+     *
+     * @param view                            View.
+     * @param viewFilter                      View filter.
+     * @param branchViewFilter                Branch view filter. Can be NULL.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     * @return TRUE if view is still in root view's branch, and none of its ancestors prevents it to be reached.
+     */
+    private boolean isReachable(final View view, final ViewFilter viewFilter, final BranchViewFilter branchViewFilter, final boolean addChildsFromFilteredGroupViews) {
+        ViewParent parentView = view.getParent();
+        while (parentView != rootView) {
+            if (!(parentView instanceof ViewGroup)) {
+                return false;
+            }
+            final View ancestorView = (View) parentView;
+            if ((branchViewFilter != null && !branchViewFilter.filterBranch(ancestorView))
+                    || (!addChildsFromFilteredGroupViews && !viewFilter.filter(ancestorView))) {
+                return false;
+            }
+            parentView = ancestorView.getParent();
+        }
+        return true;
+    }
+
+    /**
+     * Indexes all childs of a view group.
+     *
+     * @param viewGroup View group.
+     */
+    private void indexChilds(final ViewGroup viewGroup) {
+        final ViewsTraversal viewsTraversal = new ViewsTraversal().reset(viewGroup, ViewsHelper.ALL_VIEWS_FILTER, true);
+        View childView;
+        while ((childView = viewsTraversal.next()) != null) {
+            refreshView(childView);
+        }
+    }
+
+    /**
+     * Indexes a view and all its childs.
+     *
+     * @param branchView Branch view.
+     */
+    private void indexBranch(final View branchView) {
+        refreshView(branchView);
+        if (branchView instanceof ViewGroup) {
+            indexChilds((ViewGroup) branchView);
+        }
+    }
+
+    /**
+     * Unindexes a view and all its childs.
+     *
+     * @param branchView Branch view.
+     */
+    private void unindexBranch(final View branchView) {
+        unindexView(branchView);
+        if (branchView instanceof ViewGroup) {
+            final ViewsTraversal viewsTraversal = new ViewsTraversal().reset((ViewGroup) branchView, ViewsHelper.ALL_VIEWS_FILTER, true);
+            View childView;
+            while ((childView = viewsTraversal.next()) != null) {
+                unindexView(childView);
+            }
+        }
+    }
+
+    /**
+     * Indexes a view with its current id and tag.
+     *
+     * @param view View.
+     */
+    private void refreshView(final View view) {
+        unindexView(view);
+
+        final int identifier = view.getId();
+        final Object tag = view.getTag();
+        indexedViews.put(view, new Object[]{identifier, tag});
+        if (identifier != View.NO_ID) {
+            List<View> views = viewsById.get(identifier);
+            if (views == null) {
+                views = new ArrayList<>(1);
+                viewsById.put(identifier, views);
+            }
+            views.add(view);
+        }
+        if (tag != null) {
+            addView(viewsByTag, tag, view);
+        }
+        addView(viewsByType, view.getClass(), view);
+    }
+
+    /**
+     * Unindexes a view, with the id and tag it has been indexed with.
+     *
+     * @param view View.
+     */
+    private void unindexView(final View view) {
+        final Object[] indexedKeys = indexedViews.remove(view);
+        if (indexedKeys == null) {
+            return;
+        }
+        final int identifier = (Integer) indexedKeys[0];
+        if (identifier != View.NO_ID) {
+            final List<View> views = viewsById.get(identifier);
+            views.remove(view);
+            if (views.isEmpty()) {
+                viewsById.remove(identifier);
+            }
+        }
+        if (indexedKeys[1] != null) {
+            removeView(viewsByTag, indexedKeys[1], view);
+        }
+        removeView(viewsByType, view.getClass(), view);
+    }
+
+    /**
+     * Checks if a key is duplicated before its index.
+     *
+     * @param keys     Keys.
+     * @param keyIndex Key index.
+     * @return TRUE if key has already been seen.
+     */
+    private static boolean isDuplicate(final int[] keys, final int keyIndex) {
+        for (int previousKeyIndex = 0; previousKeyIndex < keyIndex; previousKeyIndex++) {
+            if (keys[previousKeyIndex] == keys[keyIndex]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a key is duplicated before its index.
+     *
+     * @param keys     Keys.
+     * @param keyIndex Key index.
+     * @return TRUE if key has already been seen.
+     */
+    private static boolean isDuplicate(final Object[] keys, final int keyIndex) {
+        for (int previousKeyIndex = 0; previousKeyIndex < keyIndex; previousKeyIndex++) {
+            if (keys[previousKeyIndex] == null ? keys[keyIndex] == null : keys[previousKeyIndex].equals(keys[keyIndex])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a view to views by key.
+     *
+     * @param viewsByKey  Views by key.
+     * @param key         Key.
+     * @param view        View.
+     * @param <TypeOfKey> Type of key.
+     */
+    private static <TypeOfKey> void addView(final Map<TypeOfKey, List<View>> viewsByKey, final TypeOfKey key, final View view) {
+        List<View> views = viewsByKey.get(key);
+        if (views == null) {
+            views = new ArrayList<>(1);
+            viewsByKey.put(key, views);
+        }
+        views.add(view);
+    }
+
+    /**
+     * Removes a view from views by key.
+     *
+     * @param viewsByKey Views by key.
+     * @param key        Key.
+     * @param view       View.
+     */
+    private static void removeView(final Map<?, List<View>> viewsByKey, final Object key, final View view) {
+        final List<View> views = viewsByKey.get(key);
+        if (views != null) {
+            views.remove(view);
+            if (views.isEmpty()) {
+                viewsByKey.remove(key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy views iterator. Views are found one by one while iterating, in the same order than a find.
+ */
+final class ViewsIterator implements Iterator<View> {
+
+    /**
+     * Nested views iterator, iterated first. NULL if there is none.
+     */
+    private Iterator<View> nestedViewsIterator;
+
+    /**
+     * Root views.
+     */
+    private final ViewGroup[] rootViews;
+
+    /**
+     * View filter.
+     */
+    private final ViewFilter viewFilter;
+
+    /**
+     * Include root view to views find.
+     */
+    private final boolean includeRootView;
+
+    /**
+     * Add childs from filtered group views.
+     */
+    private final boolean addChildsFromFilteredGroupViews;
+
+    /**
+     * Views traversal of current root view.
+     */
+    private final ViewsTraversal viewsTraversal = new ViewsTraversal();
+
+    /**
+     * Current root view index.
+     */
+    private int rootViewIndex = -1;
+
+    /**
+     * Next view. NULL if it has to be found.
+     */
+    private View nextView;
+
+    /**
+     * ViewsIterator's constructor.
+     *
+     * @param nestedViewsIterator             Nested views iterator. Can be NULL.
+     * @param rootViews                       Root views.
+     * @param viewFilter                      View filter.
+     * @param includeRootView                 Include root view to views find.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     */
+    ViewsIterator(final Iterator<View> nestedViewsIterator, @NonNull final ViewGroup[] rootViews, @NonNull final ViewFilter viewFilter, final boolean includeRootView, final boolean addChildsFromFilteredGroupViews) {
+        this.nestedViewsIterator = nestedViewsIterator;
+        this.rootViews = rootViews;
+        this.viewFilter = viewFilter;
+        this.includeRootView = includeRootView;
+        this.addChildsFromFilteredGroupViews = addChildsFromFilteredGroupViews;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextView == null) {
+            nextView = findNext();
+        }
+        return nextView != null;
+    }
+
+    @Override
+    public View next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final View view = nextView;
+        nextView = null;
+        return view;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Views cannot be removed from a views iterator.");
+    }
+
+    /**
+     * Finds next view.
+     *
+     * @return Next view, or NULL if iteration is over.
+     */
+    private View findNext() {
+        // - Pull views from nested views iterator first.
+        if (nestedViewsIterator != null) {
+            if (nestedViewsIterator.hasNext()) {
+                return nestedViewsIterator.next();
+            }
+            nestedViewsIterator = null;
+        }
+
+        // - Pull views from current root view, then move to the next one.
+        while (rootViewIndex < rootViews.length) {
+            if (rootViewIndex >= 0) {
+                final View childView = viewsTraversal.next();
+                if (childView != null) {
+                    return childView;
+                }
+            }
+
+            rootViewIndex++;
+            if (rootViewIndex < rootViews.length) {
+                final ViewGroup rootView = rootViews[rootViewIndex];
+                viewsTraversal.reset(rootView, viewFilter, addChildsFromFilteredGroupViews);
+                if (includeRootView) {
+                    return rootView;
+                }
+            }
+        }
+        viewsTraversal.clear();
+        return null;
+    }
+
+}
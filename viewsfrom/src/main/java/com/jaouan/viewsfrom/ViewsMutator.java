@@ -0,0 +1,162 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Views mutator, that applies all defined changes to found views in one pass.
+ * Views whose value already is the defined one are left untouched, so they don't request a new layout or draw.
+ */
+public final class ViewsMutator {
+
+    /**
+     * Views finder. NULL if changes are only applied to given views.
+     */
+    private final ViewsFinder viewsFinder;
+
+    /**
+     * Found views, reused by each commit.
+     */
+    private final List<View> foundViews = new ArrayList<>();
+
+    /**
+     * Views visibility. NULL if nothing to change.
+     */
+    private Integer visibility;
+
+    /**
+     * Views alpha. NULL if nothing to change.
+     */
+    private Float alpha;
+
+    /**
+     * Views enabled state. NULL if nothing to change.
+     */
+    private Boolean enabled;
+
+    /**
+     * Views tag.
+     */
+    private Object tag;
+
+    /**
+     * Views tag has to be changed.
+     */
+    private boolean tagDefined;
+
+    /**
+     * ViewsMutator's constructor.
+     *
+     * @param viewsFinder Views finder.
+     */
+    ViewsMutator(@NonNull final ViewsFinder viewsFinder) {
+        this.viewsFinder = viewsFinder;
+    }
+
+    /**
+     * ViewsMutator's constructor, for a mutator only applied to given views with {@link #commit(List)}.
+     */
+    ViewsMutator() {
+        this.viewsFinder = null;
+    }
+
+    /**
+     * Defines views visibility.
+     *
+     * @param visibility Views visibility.
+     * @return Views mutator.
+     */
+    public ViewsMutator visibility(final int visibility) {
+        this.visibility = visibility;
+        return this;
+    }
+
+    /**
+     * Defines views alpha.
+     *
+     * @param alpha Views alpha.
+     * @return Views mutator.
+     */
+    public ViewsMutator alpha(final float alpha) {
+        this.alpha = alpha;
+        return this;
+    }
+
+    /**
+     * Defines views enabled state.
+     *
+     * @param enabled Views enabled state.
+     * @return Views mutator.
+     */
+    public ViewsMutator enabled(final boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Defines views tag.
+     *
+     * @param tag Views tag. Can be NULL.
+     * @return Views mutator.
+     */
+    public ViewsMutator tag(final Object tag) {
+        this.tag = tag;
+        this.tagDefined = true;
+        return this;
+    }
+
+    /**
+     * Applies all defined changes to found views.
+     * Views are all found before the first change, so changes never alter which views are found.
+     *
+     * @return Changed views count.
+     */
+    public int commit() {
+        viewsFinder.find(foundViews);
+        final int changedViewsCount = commit(foundViews);
+
+        // - Release found views.
+        foundViews.clear();
+        return changedViewsCount;
+    }
+
+    /**
+     * Applies all defined changes to given views.
+     *
+     * @param views Views.
+     * @return Changed views count.
+     */
+    int commit(@NonNull final List<View> views) {
+        // - Apply changes, skipping views which already have defined values.
+        int changedViewsCount = 0;
+        final int viewsCount = views.size();
+        for (int viewIndex = 0; viewIndex < viewsCount; viewIndex++) {
+            final View view = views.get(viewIndex);
+            boolean changed = false;
+            if (visibility != null && view.getVisibility() != visibility) {
+                view.setVisibility(visibility);
+                changed = true;
+            }
+            if (alpha != null && view.getAlpha() != alpha) {
+                view.setAlpha(alpha);
+                changed = true;
+            }
+            if (enabled != null && view.isEnabled() != enabled) {
+                view.setEnabled(enabled);
+                changed = true;
+            }
+            if (tagDefined && (tag == null ? view.getTag() != null : !tag.equals(view.getTag()))) {
+                view.setTag(tag);
+                changed = true;
+            }
+            if (changed) {
+                changedViewsCount++;
+            }
+        }
+        return changedViewsCount;
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Views result cache of a compiled view query.
+ * Cached views are kept until the hierarchy of a root view changes or is laid out again.
+ * Views are held weakly, so a detached hierarchy is never kept alive by the cache.
+ * Each root view has a single observer, shared by all caches of its hierarchy and holding them weakly,
+ * so caches of unreachable queries neither pile listeners up nor stay alive.
+ * If hierarchy changes can't be observed, nothing is cached and views are found again each time.
+ */
+final class ViewsResultCache {
+
+    /**
+     * Root views.
+     */
+    private final ViewGroup[] rootViews;
+
+    /**
+     * Cached views. NULL if cache is invalid.
+     */
+    private List<WeakReference<View>> cachedViews;
+
+    /**
+     * Observing root views.
+     */
+    private boolean observing;
+
+    /**
+     * Cache hit count.
+     */
+    private int hitCount;
+
+    /**
+     * Cache miss count.
+     */
+    private int missCount;
+
+    /**
+     * ViewsResultCache's constructor.
+     *
+     * @param rootViews Root views.
+     */
+    ViewsResultCache(@NonNull final ViewGroup[] rootViews) {
+        this.rootViews = rootViews;
+    }
+
+    /**
+     * Adds cached views to a list.
+     *
+     * @param views Views where cached views will be added.
+     * @return TRUE if cached views have been added, FALSE if cache is invalid.
+     */
+    boolean get(@NonNull final List<View> views) {
+        if (cachedViews != null) {
+            final int firstViewIndex = views.size();
+            final int cachedViewsCount = cachedViews.size();
+            for (int cachedViewIndex = 0; cachedViewIndex < cachedViewsCount; cachedViewIndex++) {
+                final View cachedView = cachedViews.get(cachedViewIndex).get();
+                // A collected view invalidates the cache.
+                if (cachedView == null) {
+                    views.subList(firstViewIndex, views.size()).clear();
+                    invalidate();
+                    break;
+                }
+                views.add(cachedView);
+            }
+        }
+
+        if (cachedViews == null) {
+            missCount++;
+            return false;
+        }
+        hitCount++;
+        return true;
+    }
+
+    /**
+     * Caches views.
+     *
+     * @param views Views to cache.
+     */
+    void put(@NonNull final List<View> views) {
+        if (!ViewsHierarchyObserver.isSupported()) {
+            return;
+        }
+        final int viewsCount = views.size();
+        cachedViews = new ArrayList<>(viewsCount);
+        for (int viewIndex = 0; viewIndex < viewsCount; viewIndex++) {
+            cachedViews.add(new WeakReference<>(views.get(viewIndex)));
+        }
+        observe();
+    }
+
+    /**
+     * Invalidates cached views.
+     */
+    void invalidate() {
+        cachedViews = null;
+    }
+
+    /**
+     * Stops observing root views and invalidates cached views.
+     */
+    void release() {
+        invalidate();
+        if (observing) {
+            observing = false;
+            for (final ViewGroup rootView : rootViews) {
+                RootViewObserver.removeViewsResultCache(rootView, this);
+            }
+        }
+    }
+
+    /**
+     * Gets cache hit count.
+     *
+     * @return Cache hit count.
+     */
+    int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets cache miss count.
+     *
+     * @return Cache miss count.
+     */
+    int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Starts observing root views, if not already done.
+     */
+    private void observe() {
+        if (!observing) {
+            observing = true;
+            for (final ViewGroup rootView : rootViews) {
+                RootViewObserver.addViewsResultCache(rootView, this);
+            }
+        }
+    }
+
+    /**
+     * Root view observer, invalidating all views result caches of a root view when its hierarchy changes or is laid out.
+     * It is kept in root view's tags, and stops observing once all its caches have been released or collected.
+     */
+    private static final class RootViewObserver implements ViewsHierarchyObserver.HierarchyListener, ViewTreeObserver.OnGlobalLayoutListener {
+
+        /**
+         * Root view.
+         */
+        private final ViewGroup rootView;
+
+        /**
+         * Views result caches, held weakly.
+         */
+        private final List<WeakReference<ViewsResultCache>> viewsResultCaches = new ArrayList<>();
+
+        /**
+         * RootViewObserver's constructor.
+         *
+         * @param rootView Root view.
+         */
+        private RootViewObserver(@NonNull final ViewGroup rootView) {
+            this.rootView = rootView;
+        }
+
+        /**
+         * Adds a views result cache to invalidate on root view's changes, observing root view if not already done.
+         *
+         * @param rootView         Root view.
+         * @param viewsResultCache Views result cache.
+         */
+        static void addViewsResultCache(@NonNull final ViewGroup rootView, @NonNull final ViewsResultCache viewsResultCache) {
+            RootViewObserver rootViewObserver = (RootViewObserver) rootView.getTag(R.id.viewsfrom_result_caches);
+            if (rootViewObserver == null) {
+                rootViewObserver = new RootViewObserver(rootView);
+                rootView.setTag(R.id.viewsfrom_result_caches, rootViewObserver);
+                ViewsHierarchyObserver.addHierarchyListener(rootView, rootViewObserver);
+                rootView.getViewTreeObserver().addOnGlobalLayoutListener(rootViewObserver);
+            }
+            rootViewObserver.removeViewsResultCache(null);
+            rootViewObserver.viewsResultCaches.add(new WeakReference<>(viewsResultCache));
+        }
+
+        /**
+         * Removes a views result cache, stopping observing root view if it has no cache anymore.
+         *
+         * @param rootView         Root view.
+         * @param viewsResultCache Views result cache.
+         */
+        static void removeViewsResultCache(@NonNull final ViewGroup rootView, @NonNull final ViewsResultCache viewsResultCache) {
+            final RootViewObserver rootViewObserver = (RootViewObserver) rootView.getTag(R.id.viewsfrom_result_caches);
+            if (rootViewObserver != null) {
+                rootViewObserver.removeViewsResultCache(viewsResultCache);
+                rootViewObserver.stopIfUnused();
+            }
+        }
+
+        /**
+         * Removes a views result cache, along with collected ones.
+         *
+         * @param viewsResultCache Views result cache. NULL to remove collected ones only.
+         */
+        private void removeViewsResultCache(final ViewsResultCache viewsResultCache) {
+            for (int cacheIndex = viewsResultCaches.size() - 1; cacheIndex >= 0; cacheIndex--) {
+                final ViewsResultCache cachedViewsResultCache = viewsResultCaches.get(cacheIndex).get();
+                if (cachedViewsResultCache == null || cachedViewsResultCache == viewsResultCache) {
+                    viewsResultCaches.remove(cacheIndex);
+                }
+            }
+        }
+
+        /**
+         * Invalidates all views result caches, then stops observing root view if it has no cache anymore.
+         */
+        private void invalidateAll() {
+            for (int cacheIndex = viewsResultCaches.size() - 1; cacheIndex >= 0; cacheIndex--) {
+                final ViewsResultCache viewsResultCache = viewsResultCaches.get(cacheIndex).get();
+                if (viewsResultCache != null) {
+                    viewsResultCache.invalidate();
+                } else {
+                    viewsResultCaches.remove(cacheIndex);
+                }
+            }
+            stopIfUnused();
+        }
+
+        /**
+         * Stops observing root view if it has no cache anymore.
+         */
+        @SuppressWarnings("deprecation")
+        private void stopIfUnused() {
+            if (!viewsResultCaches.isEmpty()) {
+                return;
+            }
+            rootView.setTag(R.id.viewsfrom_result_caches, null);
+            ViewsHierarchyObserver.removeHierarchyListener(rootView, this);
+            final ViewTreeObserver viewTreeObserver = rootView.getViewTreeObserver();
+            if (viewTreeObserver.isAlive()) {
+                // removeOnGlobalLayoutListener() requires API 16.
+                viewTreeObserver.removeGlobalOnLayoutListener(this);
+            }
+        }
+
+        @Override
+        public void onBranchAdded(final View branchView) {
+            invalidateAll();
+        }
+
+        @Override
+        public void onBranchRemoved(final View branchView) {
+            invalidateAll();
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            invalidateAll();
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.jaouan.viewsfrom.filters.ViewAttributes;
+
+import java.util.Arrays;
+
+/**
+ * Views snapshot : ids, tags, types, visibilities and structure of views hierarchies, captured in pre-order on main thread.
+ * Once captured, it is frozen and can be read from any thread, so filters can be evaluated off main thread,
+ * or many times on the same hierarchy.
+ */
+public final class ViewsSnapshot implements ViewAttributes {
+
+    /**
+     * Flat view tree of captured hierarchies.
+     */
+    private final FlatViewTree flatViewTree;
+
+    /**
+     * ViewsSnapshot's constructor.
+     *
+     * @param flatViewTree Flat view tree of captured hierarchies.
+     */
+    private ViewsSnapshot(@NonNull final FlatViewTree flatViewTree) {
+        this.flatViewTree = flatViewTree;
+    }
+
+    /**
+     * Captures views hierarchies of root views. Must be called on main thread.
+     *
+     * @param rootViews Root views.
+     * @return Views snapshot.
+     */
+    public static ViewsSnapshot capture(@NonNull final ViewGroup... rootViews) {
+        FunctionUtils.checkParameterIsNotNull("rootViews", rootViews);
+
+        // - Remove duplicated root views.
+        final ViewGroup[] distinctRootViews = new ViewGroup[rootViews.length];
+        int distinctRootViewsCount = 0;
+        for (final ViewGroup rootView : rootViews) {
+            FunctionUtils.checkParameterIsNotNull("rootView", rootView);
+            if (!contains(distinctRootViews, distinctRootViewsCount, rootView)) {
+                distinctRootViews[distinctRootViewsCount++] = rootView;
+            }
+        }
+
+        return new ViewsSnapshot(FlatViewTree.build(Arrays.copyOf(distinctRootViews, distinctRootViewsCount)));
+    }
+
+    /**
+     * Checks if root views contain a root view.
+     *
+     * @param rootViews      Root views.
+     * @param rootViewsCount Root views count.
+     * @param rootView       Root view.
+     * @return TRUE if root views contain root view.
+     */
+    private static boolean contains(final ViewGroup[] rootViews, final int rootViewsCount, final ViewGroup rootView) {
+        for (int rootIndex = 0; rootIndex < rootViewsCount; rootIndex++) {
+            if (rootViews[rootIndex] == rootView) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets flat view tree of captured hierarchies.
+     *
+     * @return Flat view tree.
+     */
+    FlatViewTree getFlatViewTree() {
+        return flatViewTree;
+    }
+
+    /**
+     * Checks if a root view has been captured in this snapshot.
+     *
+     * @param rootView Root view.
+     * @return TRUE if root view's hierarchy has been captured.
+     */
+    public boolean contains(@NonNull final ViewGroup rootView) {
+        return flatViewTree.getRootViewIndex(rootView) >= 0;
+    }
+
+    /**
+     * Gets captured views count, root views included.
+     *
+     * @return Views count.
+     */
+    public int getViewsCount() {
+        return flatViewTree.getViewsCount();
+    }
+
+    /**
+     * Gets view's parent index.
+     *
+     * @param viewIndex View index.
+     * @return Parent index, or -1 for root views.
+     */
+    public int getParentIndex(final int viewIndex) {
+        return flatViewTree.getParentIndex(viewIndex);
+    }
+
+    @Override
+    public View getView(final int viewIndex) {
+        return flatViewTree.getView(viewIndex);
+    }
+
+    @Override
+    public int getId(final int viewIndex) {
+        return flatViewTree.getId(viewIndex);
+    }
+
+    @Override
+    public Object getTag(final int viewIndex) {
+        return flatViewTree.getTag(viewIndex);
+    }
+
+    @Override
+    public Class<? extends View> getType(final int viewIndex) {
+        return flatViewTree.getType(viewIndex);
+    }
+
+    @Override
+    public int getVisibility(final int viewIndex) {
+        return flatViewTree.getVisibility(viewIndex);
+    }
+
+}
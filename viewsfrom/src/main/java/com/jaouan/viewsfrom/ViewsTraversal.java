@@ -0,0 +1,173 @@
+package com.jaouan.viewsfrom;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.jaouan.viewsfrom.filters.BranchViewFilter;
+import com.jaouan.viewsfrom.filters.ViewFilter;
+
+import java.util.Arrays;
+
+/**
+ * Iterative pre-order traversal of a view group's childs, backed by a reusable array stack.
+ * Branches rejected by a {@link BranchViewFilter} are skipped entirely.
+ * An instance can be reset and reused for many traversals without allocating per view.
+ */
+final class ViewsTraversal {
+
+    /**
+     * Initial stack depth.
+     */
+    private static final int INITIAL_STACK_DEPTH = 16;
+
+    /**
+     * Stacked view groups.
+     */
+    private ViewGroup[] stackedViewGroups = new ViewGroup[INITIAL_STACK_DEPTH];
+
+    /**
+     * Next child index of each stacked view group.
+     */
+    private int[] stackedChildIndexes = new int[INITIAL_STACK_DEPTH];
+
+    /**
+     * Child count of each stacked view group, read once when the group is stacked.
+     */
+    private int[] stackedChildCounts = new int[INITIAL_STACK_DEPTH];
+
+    /**
+     * Stack depth.
+     */
+    private int stackDepth;
+
+    /**
+     * View filter.
+     */
+    private ViewFilter viewFilter;
+
+    /**
+     * Branch view filter, that can reject whole branches. NULL if there is none.
+     */
+    private BranchViewFilter branchViewFilter;
+
+    /**
+     * Add childs from filtered group views.
+     */
+    private boolean addChildsFromFilteredGroupViews;
+
+    /**
+     * Views visited since last reset.
+     */
+    private int visitedViewsCount;
+
+    /**
+     * Group views pushed since last reset.
+     */
+    private int descendedGroupViewsCount;
+
+    /**
+     * Resets traversal on a view group's childs.
+     *
+     * @param viewGroup                       View group.
+     * @param viewFilter                      View filter.
+     * @param addChildsFromFilteredGroupViews Add childs from filtered group views.
+     * @return Views traversal.
+     */
+    ViewsTraversal reset(@NonNull final ViewGroup viewGroup, @NonNull final ViewFilter viewFilter, final boolean addChildsFromFilteredGroupViews) {
+        clear();
+        visitedViewsCount = 0;
+        descendedGroupViewsCount = 0;
+        this.viewFilter = viewFilter;
+        this.branchViewFilter = ViewsHelper.getBranchViewFilter(viewFilter);
+        this.addChildsFromFilteredGroupViews = addChildsFromFilteredGroupViews;
+        // - Skip all childs if view group's branch is rejected.
+        if (branchViewFilter == null || branchViewFilter.filterBranch(viewGroup)) {
+            push(viewGroup);
+        }
+        return this;
+    }
+
+    /**
+     * Finds next view satisfying the filter, in pre-order.
+     *
+     * @return Next view, or NULL if traversal is over.
+     */
+    View next() {
+        while (stackDepth > 0) {
+            final int top = stackDepth - 1;
+
+            // - Pop view group if all its childs have been visited.
+            final int childViewIndex = stackedChildIndexes[top];
+            if (childViewIndex >= stackedChildCounts[top]) {
+                stackedViewGroups[top] = null;
+                stackDepth = top;
+                continue;
+            }
+            stackedChildIndexes[top] = childViewIndex + 1;
+
+            // - Visit child, and stack it if its childs have to be visited.
+            final View childView = stackedViewGroups[top].getChildAt(childViewIndex);
+            visitedViewsCount++;
+            if (childView == null || (branchViewFilter != null && !branchViewFilter.filterBranch(childView))) {
+                continue;
+            }
+            final boolean isNotFiltered = viewFilter.filter(childView);
+            if (childView instanceof ViewGroup && (isNotFiltered || addChildsFromFilteredGroupViews)) {
+                push((ViewGroup) childView);
+            }
+            if (isNotFiltered) {
+                return childView;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Clears traversal and releases references to views.
+     */
+    void clear() {
+        Arrays.fill(stackedViewGroups, 0, stackDepth, null);
+        stackDepth = 0;
+        viewFilter = null;
+        branchViewFilter = null;
+    }
+
+    /**
+     * Stacks a view group.
+     *
+     * @param viewGroup View group.
+     */
+    private void push(final ViewGroup viewGroup) {
+        if (stackDepth == stackedViewGroups.length) {
+            final int newStackDepth = stackDepth * 2;
+            stackedViewGroups = Arrays.copyOf(stackedViewGroups, newStackDepth);
+            stackedChildIndexes = Arrays.copyOf(stackedChildIndexes, newStackDepth);
+            stackedChildCounts = Arrays.copyOf(stackedChildCounts, newStackDepth);
+        }
+        stackedViewGroups[stackDepth] = viewGroup;
+        stackedChildIndexes[stackDepth] = 0;
+        stackedChildCounts[stackDepth] = viewGroup.getChildCount();
+        stackDepth++;
+        descendedGroupViewsCount++;
+    }
+
+    /**
+     * Gets views count visited since last reset.
+     *
+     * @return Visited views count.
+     */
+    int getVisitedViewsCount() {
+        return visitedViewsCount;
+    }
+
+    /**
+     * Gets group views count whose childs have been visited since last reset.
+     *
+     * @return Descended group views count.
+     */
+    int getDescendedGroupViewsCount() {
+        return descendedGroupViewsCount;
+    }
+
+}
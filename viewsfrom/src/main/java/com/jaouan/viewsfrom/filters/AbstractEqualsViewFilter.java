@@ -3,16 +3,23 @@ package com.jaouan.viewsfrom.filters;
 import android.support.annotation.NonNull;
 import android.view.View;
 
+import java.util.Set;
+
 /**
  * Abstract equals filter.
  */
-public abstract class AbstractEqualsViewFilter<TypeOfObject> implements ViewFilter {
+public abstract class AbstractEqualsViewFilter<TypeOfObject> implements ViewAttributesFilter {
 
     /**
      * Texts.
      */
     private final TypeOfObject[] objects;
 
+    /**
+     * Objects hash set. NULL if objects are few enough to be scanned.
+     */
+    private final Set<TypeOfObject> objectSet;
+
     /**
      * Text filter's contructor.
      *
@@ -20,11 +27,33 @@ public abstract class AbstractEqualsViewFilter<TypeOfObject> implements ViewFilt
      */
     public AbstractEqualsViewFilter(@NonNull final TypeOfObject[] objects) {
         this.objects = objects;
+        this.objectSet = FilterHelper.toHashSetIfLarge(objects);
     }
 
     @Override
     public boolean filter(final View view) {
-        return FilterHelper.arrayContains(objects, getObjectToMatch(view));
+        final Object objectToMatch = getObjectToMatch(view);
+        return objectSet != null ? objectSet.contains(objectToMatch) : FilterHelper.arrayContains(objects, objectToMatch);
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        final Object objectToMatch = getObjectToMatch(viewAttributes, viewIndex);
+        return objectSet != null ? objectSet.contains(objectToMatch) : FilterHelper.arrayContains(objects, objectToMatch);
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Gets objects. Returned array must not be modified.
+     *
+     * @return Objects.
+     */
+    public TypeOfObject[] getObjects() {
+        return objects;
     }
 
     /**
@@ -35,4 +64,15 @@ public abstract class AbstractEqualsViewFilter<TypeOfObject> implements ViewFilt
      */
     protected abstract Object getObjectToMatch(View view);
 
+    /**
+     * Get object to match from view's attributes. Reads the view itself by default.
+     *
+     * @param viewAttributes View attributes.
+     * @param viewIndex      View index.
+     * @return Object to match.
+     */
+    protected Object getObjectToMatch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return getObjectToMatch(viewAttributes.getView(viewIndex));
+    }
+
 }
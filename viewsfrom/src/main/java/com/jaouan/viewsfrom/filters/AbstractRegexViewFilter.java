@@ -3,45 +3,262 @@ package com.jaouan.viewsfrom.filters;
 import android.support.annotation.NonNull;
 import android.view.View;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Abstract regex filter.
+ * Regexes are combined into a single alternation when possible, so a text is matched in one pass,
+ * and matchers are reused by each thread, so matching does not allocate.
+ * Match results of recent texts are cached, so repeated texts cost a hash lookup instead of a regex run.
  */
-public abstract class AbstractRegexViewFilter implements ViewFilter {
+public abstract class AbstractRegexViewFilter implements ViewAttributesFilter {
 
     /**
-     * Regex patterns.
+     * Characters having a meaning in regexes. Regexes without any of them are literals.
      */
-    private final List<Pattern> patterns;
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
 
     /**
-     * Visibility filter's contructor.
+     * Default match results cache size.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 128;
+
+    /**
+     * Literals to look for, if all regexes are literals. NULL otherwise.
+     */
+    private final String[] literals;
+
+    /**
+     * Regex patterns. A single combined pattern if regexes can be combined.
+     */
+    private final Pattern[] patterns;
+
+    /**
+     * Match results cache. NULL if disabled, or if regexes are literals.
+     */
+    private final TextMatchCache matchCache;
+
+    /**
+     * Matchers of patterns, reused by each thread.
+     */
+    private final ThreadLocal<Matcher[]> matchers = new ThreadLocal<Matcher[]>() {
+        @Override
+        protected Matcher[] initialValue() {
+            final Matcher[] matchers = new Matcher[patterns.length];
+            for (int patternIndex = 0; patternIndex < patterns.length; patternIndex++) {
+                matchers[patternIndex] = patterns[patternIndex].matcher("");
+            }
+            return matchers;
+        }
+    };
+
+    /**
+     * Regex filter's contructor, caching match results of {@see #DEFAULT_CACHE_SIZE} texts.
      *
      * @param regexes View's regexes.
      */
     public AbstractRegexViewFilter(@NonNull final String[] regexes) {
-        patterns = new ArrayList<>(regexes.length);
+        this(regexes, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Regex filter's contructor.
+     *
+     * @param regexes   View's regexes.
+     * @param cacheSize Texts count whose match results are cached, least recently used ones being evicted first. 0 to disable cache.
+     */
+    public AbstractRegexViewFilter(@NonNull final String[] regexes, final int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize cannot be negative.");
+        }
+
+        // - Compile each regex, so invalid ones are reported as they are.
+        final Pattern[] regexPatterns = new Pattern[regexes.length];
+        boolean areLiterals = true;
+        for (int regexIndex = 0; regexIndex < regexes.length; regexIndex++) {
+            regexPatterns[regexIndex] = Pattern.compile(regexes[regexIndex]);
+            areLiterals &= isLiteral(regexes[regexIndex]);
+        }
+
+        // - Literals are looked for without any regex.
+        literals = areLiterals ? regexes.clone() : null;
+
+        // - Combine regexes into a single alternation if possible.
+        final Pattern combinedPattern = !areLiterals && regexes.length > 1 && canBeCombined(regexes) ? combine(regexes) : null;
+        patterns = combinedPattern != null ? new Pattern[]{combinedPattern} : regexPatterns;
+
+        // - Cache match results, unless literals are cheaper to look for than a cache.
+        matchCache = !areLiterals && cacheSize > 0 ? new TextMatchCache(cacheSize) : null;
+    }
+
+    /**
+     * Checks if a regex is a literal.
+     *
+     * @param regex Regex.
+     * @return TRUE if regex has no meta character.
+     */
+    private static boolean isLiteral(final String regex) {
+        for (int charIndex = 0; charIndex < regex.length(); charIndex++) {
+            if (REGEX_META_CHARACTERS.indexOf(regex.charAt(charIndex)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if regexes can be combined into an alternation without changing their meaning.
+     * Back references would refer to other groups once combined, named groups could be declared twice,
+     * quotes and comments could swallow the alternation.
+     *
+     * @param regexes Regexes.
+     * @return TRUE if regexes can be combined.
+     */
+    private static boolean canBeCombined(final String[] regexes) {
         for (final String regex : regexes) {
-            patterns.add(Pattern.compile(regex));
+            if (regex.indexOf('#') >= 0 || regex.contains("\\Q") || regex.contains("\\k<")) {
+                return false;
+            }
+            // Named groups, but not look-behinds.
+            for (int charIndex = regex.indexOf("(?<"); charIndex >= 0; charIndex = regex.indexOf("(?<", charIndex + 3)) {
+                if (charIndex + 3 < regex.length() && Character.isLetter(regex.charAt(charIndex + 3))) {
+                    return false;
+                }
+            }
+            for (int charIndex = regex.indexOf('\\'); charIndex >= 0 && charIndex < regex.length() - 1; charIndex = regex.indexOf('\\', charIndex + 2)) {
+                if (Character.isDigit(regex.charAt(charIndex + 1))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Combines regexes into a single alternation.
+     *
+     * @param regexes Regexes.
+     * @return Combined pattern, or NULL if regexes can't be compiled together.
+     */
+    private static Pattern combine(final String[] regexes) {
+        final StringBuilder alternation = new StringBuilder();
+        for (final String regex : regexes) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?:").append(regex).append(')');
+        }
+        try {
+            return Pattern.compile(alternation.toString());
+        } catch (final PatternSyntaxException patternSyntaxException) {
+            return null;
         }
     }
 
     @Override
     public boolean filter(final View view) {
-        final String textToMatch = getTextToMatch(view);
-        if (textToMatch != null) {
-            for (final Pattern pattern : patterns) {
-                if (pattern.matcher(textToMatch).find()) {
+        return matches(getTextToMatch(view));
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        return matches(getTextToMatch(viewAttributes, viewIndex));
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Checks if a text matches one of regexes.
+     *
+     * @param textToMatch Text to match. May be NULL.
+     * @return TRUE if text matches one of regexes.
+     */
+    private boolean matches(final String textToMatch) {
+        if (textToMatch == null) {
+            return false;
+        }
+
+        // - Look for literals.
+        if (literals != null) {
+            for (final String literal : literals) {
+                if (textToMatch.contains(literal)) {
                     return true;
                 }
             }
+            return false;
+        }
+
+        // - Otherwise, look match result up.
+        if (matchCache == null) {
+            return find(textToMatch);
+        }
+        final Boolean cachedMatchResult = matchCache.get(textToMatch);
+        if (cachedMatchResult != null) {
+            return cachedMatchResult;
+        }
+        final boolean matchResult = find(textToMatch);
+        matchCache.put(textToMatch, matchResult);
+        return matchResult;
+    }
+
+    /**
+     * Runs reused matchers on a text.
+     *
+     * @param textToMatch Text to match.
+     * @return TRUE if text matches one of regexes.
+     */
+    private boolean find(final String textToMatch) {
+        for (final Matcher matcher : matchers.get()) {
+            if (matcher.reset(textToMatch).find()) {
+                return true;
+            }
         }
         return false;
     }
 
+    /**
+     * Gets texts count whose match results can be cached.
+     *
+     * @return Cache size, 0 if cache is disabled or if regexes are literals.
+     */
+    public int getCacheSize() {
+        return matchCache != null ? matchCache.getMaximumSize() : 0;
+    }
+
+    /**
+     * Gets count of texts whose match results have been found in cache.
+     *
+     * @return Cache hits count.
+     */
+    public long getCacheHitsCount() {
+        return matchCache != null ? matchCache.getHitsCount() : 0;
+    }
+
+    /**
+     * Gets count of texts whose match results have not been found in cache, so that regexes have been run.
+     *
+     * @return Cache misses count.
+     */
+    public long getCacheMissesCount() {
+        return matchCache != null ? matchCache.getMissesCount() : 0;
+    }
+
+    /**
+     * Gets cache hit rate.
+     *
+     * @return Cache hit rate, between 0 and 1, or NaN if cache has not been looked up.
+     */
+    public float getCacheHitRate() {
+        final long hitsCount = getCacheHitsCount();
+        final long lookupsCount = hitsCount + getCacheMissesCount();
+        return lookupsCount > 0 ? (float) hitsCount / lookupsCount : Float.NaN;
+    }
+
     /**
      * Get text to match.
      *
@@ -50,4 +267,15 @@ public abstract class AbstractRegexViewFilter implements ViewFilter {
      */
     protected abstract String getTextToMatch(View view);
 
+    /**
+     * Get text to match from view's attributes. Reads the view itself by default.
+     *
+     * @param viewAttributes View attributes.
+     * @param viewIndex      View index.
+     * @return Text to match.
+     */
+    protected String getTextToMatch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return getTextToMatch(viewAttributes.getView(viewIndex));
+    }
+
 }
@@ -3,17 +3,57 @@ package com.jaouan.viewsfrom.filters;
 import android.support.annotation.NonNull;
 import android.view.View;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Global filter that aggregate multiples filters.
+ * It can sample pass rates and costs of its filters over first evaluations, then reorder them
+ * so that cheap filters rejecting most views are evaluated first.
  */
-public class AggregatedViewFilters implements ViewFilter {
+public class AggregatedViewFilters implements BranchViewFilter, ViewAttributesFilter {
 
     /**
      * View filters.
      */
-    private final List<ViewFilter> viewFilters;
+    private final ViewFilter[] viewFilters;
+
+    /**
+     * View filters, in evaluation order. Same as view filters until they are reordered.
+     */
+    private volatile ViewFilter[] orderedViewFilters;
+
+    /**
+     * Aggregated filters that can reject whole branches.
+     */
+    private final BranchViewFilter[] branchViewFilters;
+
+    /**
+     * Evaluations count to sample before reordering filters. 0 if filters are never reordered.
+     */
+    private final int samplesCount;
+
+    /**
+     * Sampled evaluations count.
+     */
+    private int sampledCount;
+
+    /**
+     * Sampled evaluations count of each filter. Filters after a rejecting one are not evaluated.
+     */
+    private final int[] sampledEvaluationsCounts;
+
+    /**
+     * Sampled passes count of each filter.
+     */
+    private final int[] sampledPassesCounts;
+
+    /**
+     * Sampled evaluations time of each filter, in nanoseconds.
+     */
+    private final long[] sampledNanos;
 
     /**
      * AggregatedViewFilters's constructor.
@@ -21,13 +61,45 @@ public class AggregatedViewFilters implements ViewFilter {
      * @param viewFilters View filter to onView.
      */
     public AggregatedViewFilters(@NonNull final List<ViewFilter> viewFilters) {
-        this.viewFilters = viewFilters;
+        this(viewFilters, 0);
+    }
+
+    /**
+     * AggregatedViewFilters's constructor.
+     *
+     * @param viewFilters  View filter to onView.
+     * @param samplesCount Evaluations count to sample before reordering filters. 0 to never reorder them.
+     */
+    public AggregatedViewFilters(@NonNull final List<ViewFilter> viewFilters, final int samplesCount) {
+        if (samplesCount < 0) {
+            throw new IllegalArgumentException("samplesCount cannot be negative.");
+        }
+        this.viewFilters = viewFilters.toArray(new ViewFilter[viewFilters.size()]);
+        this.orderedViewFilters = this.viewFilters;
+        this.samplesCount = samplesCount;
+        this.sampledEvaluationsCounts = new int[this.viewFilters.length];
+        this.sampledPassesCounts = new int[this.viewFilters.length];
+        this.sampledNanos = new long[this.viewFilters.length];
+
+        // - Keep filters that can reject whole branches.
+        final List<BranchViewFilter> branchViewFilters = new ArrayList<>();
+        for (final ViewFilter viewFilter : viewFilters) {
+            if (viewFilter instanceof BranchViewFilter) {
+                branchViewFilters.add((BranchViewFilter) viewFilter);
+            }
+        }
+        this.branchViewFilters = branchViewFilters.toArray(new BranchViewFilter[branchViewFilters.size()]);
     }
 
     @Override
     public boolean filter(final View view) {
+        // - Sample first evaluations if necessary.
+        if (sampledCount < samplesCount) {
+            return filterAndSample(view);
+        }
+
         // - Apply all filters.
-        for (final ViewFilter viewFilter : viewFilters) {
+        for (final ViewFilter viewFilter : orderedViewFilters) {
             if (!viewFilter.filter(view)) {
                 return false;
             }
@@ -35,4 +107,163 @@ public class AggregatedViewFilters implements ViewFilter {
         return true;
     }
 
+    @Override
+    public boolean filterBranch(final View view) {
+        // - Apply all branch filters.
+        for (final BranchViewFilter branchViewFilter : branchViewFilters) {
+            if (!branchViewFilter.filterBranch(view)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        // - Apply all filters.
+        for (final ViewFilter viewFilter : orderedViewFilters) {
+            if (!FilterHelper.filter(viewFilter, viewAttributes, viewIndex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        // - Apply all branch filters.
+        for (final BranchViewFilter branchViewFilter : branchViewFilters) {
+            if (!FilterHelper.filterBranch(branchViewFilter, viewAttributes, viewIndex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies all filters in their planned order, sampling their pass rates and costs.
+     * Filters are reordered once enough evaluations are sampled.
+     *
+     * @param view View.
+     * @return TRUE if the view satisfies all filters.
+     */
+    private boolean filterAndSample(final View view) {
+        boolean isNotFiltered = true;
+        for (int filterIndex = 0; filterIndex < viewFilters.length && isNotFiltered; filterIndex++) {
+            final long startNanos = System.nanoTime();
+            isNotFiltered = viewFilters[filterIndex].filter(view);
+            sampledNanos[filterIndex] += System.nanoTime() - startNanos;
+            sampledEvaluationsCounts[filterIndex]++;
+            if (isNotFiltered) {
+                sampledPassesCounts[filterIndex]++;
+            }
+        }
+        if (++sampledCount == samplesCount) {
+            reorder();
+        }
+        return isNotFiltered;
+    }
+
+    /**
+     * Reorders filters by ascending cost per rejection : the average cost of a filter divided by its rejection rate.
+     * Filters that never rejected a sampled view, or that have never been evaluated, come last in their planned order.
+     */
+    private void reorder() {
+        final Integer[] filterIndexes = new Integer[viewFilters.length];
+        for (int filterIndex = 0; filterIndex < viewFilters.length; filterIndex++) {
+            filterIndexes[filterIndex] = filterIndex;
+        }
+        // Sort is stable, so filters with the same rank keep their planned order.
+        Arrays.sort(filterIndexes, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer filterIndex1, final Integer filterIndex2) {
+                return Double.compare(getCostPerRejection(filterIndex1), getCostPerRejection(filterIndex2));
+            }
+        });
+        final ViewFilter[] reorderedViewFilters = new ViewFilter[viewFilters.length];
+        for (int rank = 0; rank < viewFilters.length; rank++) {
+            reorderedViewFilters[rank] = viewFilters[filterIndexes[rank]];
+        }
+        orderedViewFilters = reorderedViewFilters;
+    }
+
+    /**
+     * Gets sampled cost per rejection of a filter.
+     *
+     * @param filterIndex Filter index, in planned order.
+     * @return Average cost divided by rejection rate, or infinity if filter has never rejected a sampled view.
+     */
+    private double getCostPerRejection(final int filterIndex) {
+        final int rejectionsCount = sampledEvaluationsCounts[filterIndex] - sampledPassesCounts[filterIndex];
+        return rejectionsCount == 0 ? Double.POSITIVE_INFINITY : (double) sampledNanos[filterIndex] / rejectionsCount;
+    }
+
+    /**
+     * Gets evaluations count to sample before reordering filters.
+     *
+     * @return Evaluations count to sample, 0 if filters are never reordered.
+     */
+    public int getSamplesCount() {
+        return samplesCount;
+    }
+
+    /**
+     * Checks if filters have been reordered from sampled evaluations.
+     *
+     * @return TRUE if filters have been reordered.
+     */
+    public boolean isReordered() {
+        return orderedViewFilters != viewFilters;
+    }
+
+    /**
+     * Gets sampled evaluations count of a filter.
+     *
+     * @param filterIndex Filter index, in {@see #getViewFilters} order.
+     * @return Sampled evaluations count.
+     */
+    public int getSampledEvaluationsCount(final int filterIndex) {
+        return sampledEvaluationsCounts[filterIndex];
+    }
+
+    /**
+     * Gets sampled pass rate of a filter : the part of evaluated views it has kept.
+     *
+     * @param filterIndex Filter index, in {@see #getViewFilters} order.
+     * @return Sampled pass rate, between 0 and 1, or NaN if filter has not been sampled.
+     */
+    public float getSampledPassRate(final int filterIndex) {
+        final int evaluationsCount = sampledEvaluationsCounts[filterIndex];
+        return evaluationsCount == 0 ? Float.NaN : (float) sampledPassesCounts[filterIndex] / evaluationsCount;
+    }
+
+    /**
+     * Gets sampled average cost of a filter.
+     *
+     * @param filterIndex Filter index, in {@see #getViewFilters} order.
+     * @return Sampled average cost, in nanoseconds, or NaN if filter has not been sampled.
+     */
+    public float getSampledAverageNanos(final int filterIndex) {
+        final int evaluationsCount = sampledEvaluationsCounts[filterIndex];
+        return evaluationsCount == 0 ? Float.NaN : (float) sampledNanos[filterIndex] / evaluationsCount;
+    }
+
+    /**
+     * Checks if at least one aggregated filter can reject whole branches.
+     *
+     * @return TRUE if at least one aggregated filter can reject whole branches.
+     */
+    public boolean hasBranchViewFilters() {
+        return branchViewFilters.length > 0;
+    }
+
+    /**
+     * Gets view filters, in planned order, even if they have been reordered since. Returned array must not be modified.
+     *
+     * @return View filters.
+     */
+    public ViewFilter[] getViewFilters() {
+        return viewFilters;
+    }
+
 }
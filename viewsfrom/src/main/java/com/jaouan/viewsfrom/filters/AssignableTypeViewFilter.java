@@ -0,0 +1,83 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assignable type filter : views whose class is one of types, or extends one of them.
+ * Decisions are cached by view class, since a hierarchy has far fewer classes than views.
+ */
+public class AssignableTypeViewFilter implements ViewAttributesFilter {
+
+    /**
+     * View's types.
+     */
+    private final Class<? extends View>[] viewTypes;
+
+    /**
+     * Decisions by view class. Concurrent, since snapshot views can be filtered from many threads.
+     */
+    private final ConcurrentMap<Class<?>, Boolean> decisionsByClass = new ConcurrentHashMap<>();
+
+    /**
+     * Assignable type filter's contructor.
+     *
+     * @param viewTypes View's types.
+     */
+    public AssignableTypeViewFilter(@NonNull final Class<? extends View>[] viewTypes) {
+        this.viewTypes = viewTypes;
+    }
+
+    @Override
+    public boolean filter(final View view) {
+        return isAssignable(view.getClass());
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        return isAssignable(viewAttributes.getType(viewIndex));
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Checks if a view class is assignable to one of types.
+     *
+     * @param viewClass View class.
+     * @return TRUE if view class is one of types, or extends one of them.
+     */
+    private boolean isAssignable(final Class<?> viewClass) {
+        // - Look decision up.
+        final Boolean decision = decisionsByClass.get(viewClass);
+        if (decision != null) {
+            return decision;
+        }
+
+        // - Otherwise, decide and cache decision.
+        boolean isAssignable = false;
+        for (final Class<? extends View> viewType : viewTypes) {
+            if (viewType.isAssignableFrom(viewClass)) {
+                isAssignable = true;
+                break;
+            }
+        }
+        decisionsByClass.put(viewClass, isAssignable);
+        return isAssignable;
+    }
+
+    /**
+     * Gets view's types. Returned array must not be modified.
+     *
+     * @return View's types.
+     */
+    public Class<? extends View>[] getViewTypes() {
+        return viewTypes;
+    }
+
+}
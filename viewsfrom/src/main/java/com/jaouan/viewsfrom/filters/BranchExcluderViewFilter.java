@@ -0,0 +1,30 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * Branch excluder view filter : excludes views and all their childs, so their whole branches are skipped.
+ */
+public class BranchExcluderViewFilter extends ExcluderViewFilter implements BranchViewFilter {
+
+    /**
+     * Branch excluder view filter's constructor.
+     *
+     * @param views Views to exclude with their childs.
+     */
+    public BranchExcluderViewFilter(@NonNull final View[] views) {
+        super(views);
+    }
+
+    @Override
+    public boolean filterBranch(final View view) {
+        return !isExcluded(view);
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return !isExcluded(viewAttributes.getView(viewIndex));
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.view.View;
+
+
+/**
+ * View filter that can reject a whole branch : a view and all its descendants.
+ */
+public interface BranchViewFilter extends ViewFilter {
+
+    /**
+     * Check if view's branch may satisfy the filter.
+     *
+     * @param view View.
+     * @return FALSE if neither the view nor any of its descendants can satisfy the filter, so the whole branch can be skipped.
+     */
+    boolean filterBranch(View view);
+
+}
@@ -6,7 +6,7 @@ import android.view.View;
 /**
  * Complemented view filter.
  */
-public class ComplementedViewFilter implements ViewFilter {
+public class ComplementedViewFilter implements ViewAttributesFilter {
 
     /**
      * View filter to complement.
@@ -26,4 +26,23 @@ public class ComplementedViewFilter implements ViewFilter {
         return !viewFilter.filter(view);
     }
 
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        return !FilterHelper.filter(viewFilter, viewAttributes, viewIndex);
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Gets view filter to complement.
+     *
+     * @return View filter to complement.
+     */
+    public ViewFilter getViewFilter() {
+        return viewFilter;
+    }
+
 }
@@ -3,16 +3,23 @@ package com.jaouan.viewsfrom.filters;
 import android.support.annotation.NonNull;
 import android.view.View;
 
+import java.util.Set;
+
 /**
  * Excluder view filter.
  */
-public class ExcluderViewFilter implements ViewFilter {
+public class ExcluderViewFilter implements ViewAttributesFilter {
 
     /**
      * Views to exclude.
      */
     private final View[] views;
 
+    /**
+     * Views to exclude identity hash set. NULL if views are few enough to be scanned.
+     */
+    private final Set<View> viewSet;
+
     /**
      * Excluder view filter's constructor.
      *
@@ -20,11 +27,41 @@ public class ExcluderViewFilter implements ViewFilter {
      */
     public ExcluderViewFilter(@NonNull final View[] views) {
         this.views = views;
+        this.viewSet = FilterHelper.toIdentityHashSetIfLarge(views);
     }
 
     @Override
     public boolean filter(final View view) {
-        return !FilterHelper.arrayContains(views, view);
+        return !isExcluded(view);
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        return filter(viewAttributes.getView(viewIndex));
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Checks if a view is excluded.
+     *
+     * @param view View.
+     * @return TRUE if view is excluded.
+     */
+    boolean isExcluded(final View view) {
+        return viewSet != null ? viewSet.contains(view) : FilterHelper.arrayContains(views, view);
+    }
+
+    /**
+     * Gets views to exclude.
+     *
+     * @return Views to exclude.
+     */
+    View[] getViews() {
+        return views;
     }
 
 }
@@ -1,16 +1,55 @@
 package com.jaouan.viewsfrom.filters;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 /**
  * Filter helper.
  */
 final class FilterHelper {
 
+    /**
+     * Values count above which filters look values up in a hash set instead of scanning their array.
+     */
+    static final int HASH_LOOKUP_THRESHOLD = 8;
+
     /**
      * Private constructor to disallow instantiation.
      */
     private FilterHelper() {
     }
 
+    /**
+     * Filters a view from its attributes, or from the view itself if filter doesn't support attributes.
+     *
+     * @param viewFilter     View filter.
+     * @param viewAttributes View attributes.
+     * @param viewIndex      View index.
+     * @return TRUE if the view satisfies the filter.
+     */
+    static boolean filter(final ViewFilter viewFilter, final ViewAttributes viewAttributes, final int viewIndex) {
+        return viewFilter instanceof ViewAttributesFilter
+                ? ((ViewAttributesFilter) viewFilter).filter(viewAttributes, viewIndex)
+                : viewFilter.filter(viewAttributes.getView(viewIndex));
+    }
+
+    /**
+     * Filters a view's branch from view's attributes, or from the view itself if filter doesn't support attributes.
+     *
+     * @param branchViewFilter Branch view filter.
+     * @param viewAttributes   View attributes.
+     * @param viewIndex        View index.
+     * @return FALSE if the whole branch can be skipped.
+     */
+    static boolean filterBranch(final BranchViewFilter branchViewFilter, final ViewAttributes viewAttributes, final int viewIndex) {
+        return branchViewFilter instanceof ViewAttributesFilter
+                ? ((ViewAttributesFilter) branchViewFilter).filterBranch(viewAttributes, viewIndex)
+                : branchViewFilter.filterBranch(viewAttributes.getView(viewIndex));
+    }
+
     /**
      * Check if array contains a value.
      *
@@ -44,4 +83,39 @@ final class FilterHelper {
         return false;
     }
 
+    /**
+     * Creates a hash set of values if there are too many values to scan their array.
+     *
+     * @param array Array.
+     * @return Hash set of array values, or NULL if array is small enough to be scanned.
+     */
+    static IntHashSet toHashSetIfLarge(final int[] array) {
+        return array.length > HASH_LOOKUP_THRESHOLD ? new IntHashSet(array) : null;
+    }
+
+    /**
+     * Creates a hash set of values if there are too many values to scan their array.
+     *
+     * @param array Array.
+     * @return Hash set of array values, or NULL if array is small enough to be scanned.
+     */
+    static <TypeOfValue> Set<TypeOfValue> toHashSetIfLarge(final TypeOfValue[] array) {
+        return array.length > HASH_LOOKUP_THRESHOLD ? new HashSet<>(Arrays.asList(array)) : null;
+    }
+
+    /**
+     * Creates an identity hash set of values if there are too many values to scan their array.
+     *
+     * @param array Array.
+     * @return Identity hash set of array values, or NULL if array is small enough to be scanned.
+     */
+    static <TypeOfValue> Set<TypeOfValue> toIdentityHashSetIfLarge(final TypeOfValue[] array) {
+        if (array.length <= HASH_LOOKUP_THRESHOLD) {
+            return null;
+        }
+        final Set<TypeOfValue> identityHashSet = Collections.newSetFromMap(new IdentityHashMap<TypeOfValue, Boolean>(array.length));
+        Collections.addAll(identityHashSet, array);
+        return identityHashSet;
+    }
+
 }
@@ -6,12 +6,17 @@ import android.view.View;
 /**
  * Identifier filter.
  */
-public class IdViewFilter implements ViewFilter {
+public class IdViewFilter implements ViewAttributesFilter {
     /**
      * View's identifiers.
      */
     private final int[] viewIdentifiers;
 
+    /**
+     * View's identifiers hash set. NULL if identifiers are few enough to be scanned.
+     */
+    private final IntHashSet viewIdentifierSet;
+
     /**
      * Identifier filter's contructor.
      *
@@ -19,11 +24,33 @@ public class IdViewFilter implements ViewFilter {
      */
     public IdViewFilter(@NonNull final int[] viewIdentifiers) {
         this.viewIdentifiers = viewIdentifiers;
+        this.viewIdentifierSet = FilterHelper.toHashSetIfLarge(viewIdentifiers);
     }
 
     @Override
     public boolean filter(final View view) {
-        return FilterHelper.arrayContains(viewIdentifiers, view.getId());
+        final int viewIdentifier = view.getId();
+        return viewIdentifierSet != null ? viewIdentifierSet.contains(viewIdentifier) : FilterHelper.arrayContains(viewIdentifiers, viewIdentifier);
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        final int viewIdentifier = viewAttributes.getId(viewIndex);
+        return viewIdentifierSet != null ? viewIdentifierSet.contains(viewIdentifier) : FilterHelper.arrayContains(viewIdentifiers, viewIdentifier);
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Gets view's identifiers. Returned array must not be modified.
+     *
+     * @return View's identifiers.
+     */
+    public int[] getViewIdentifiers() {
+        return viewIdentifiers;
     }
 
 }
@@ -0,0 +1,102 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Immutable set of primitive ints, using open addressing. Values are never boxed.
+ */
+final class IntHashSet {
+
+    /**
+     * Empty slot marker. Its value is tracked aside.
+     */
+    private static final int EMPTY_SLOT = 0;
+
+    /**
+     * Slots. Length is a power of two.
+     */
+    private final int[] slots;
+
+    /**
+     * Slots mask.
+     */
+    private final int slotsMask;
+
+    /**
+     * Set contains empty slot marker's value.
+     */
+    private boolean containsEmptySlotValue;
+
+    /**
+     * IntHashSet's constructor.
+     *
+     * @param values Values.
+     */
+    IntHashSet(@NonNull final int[] values) {
+        // - Keep load factor under 0.5.
+        int slotsCount = 2;
+        while (slotsCount < values.length * 2) {
+            slotsCount <<= 1;
+        }
+        slots = new int[slotsCount];
+        slotsMask = slotsCount - 1;
+
+        for (final int value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Check if set contains a value.
+     *
+     * @param value Value.
+     * @return TRUE if set contains value.
+     */
+    boolean contains(final int value) {
+        if (value == EMPTY_SLOT) {
+            return containsEmptySlotValue;
+        }
+        int slotIndex = hash(value) & slotsMask;
+        while (true) {
+            final int slotValue = slots[slotIndex];
+            if (slotValue == value) {
+                return true;
+            } else if (slotValue == EMPTY_SLOT) {
+                return false;
+            }
+            slotIndex = (slotIndex + 1) & slotsMask;
+        }
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value Value.
+     */
+    private void add(final int value) {
+        if (value == EMPTY_SLOT) {
+            containsEmptySlotValue = true;
+            return;
+        }
+        int slotIndex = hash(value) & slotsMask;
+        while (slots[slotIndex] != EMPTY_SLOT) {
+            if (slots[slotIndex] == value) {
+                return;
+            }
+            slotIndex = (slotIndex + 1) & slotsMask;
+        }
+        slots[slotIndex] = value;
+    }
+
+    /**
+     * Spreads value's bits, since identifiers often share their high bits.
+     *
+     * @param value Value.
+     * @return Hash.
+     */
+    private static int hash(final int value) {
+        final int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
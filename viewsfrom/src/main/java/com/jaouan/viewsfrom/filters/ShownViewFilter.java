@@ -0,0 +1,28 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.view.View;
+
+/**
+ * Shown view filter : visible views, not in a GONE or INVISIBLE group view.
+ * Branches of hidden group views are skipped entirely.
+ */
+public class ShownViewFilter extends VisibilityViewFilter implements BranchViewFilter {
+
+    /**
+     * Shown view filter's contructor.
+     */
+    public ShownViewFilter() {
+        super(new int[]{View.VISIBLE});
+    }
+
+    @Override
+    public boolean filterBranch(final View view) {
+        return view.getVisibility() == View.VISIBLE;
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return viewAttributes.getVisibility(viewIndex) == View.VISIBLE;
+    }
+
+}
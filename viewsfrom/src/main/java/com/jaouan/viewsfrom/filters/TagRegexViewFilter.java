@@ -17,6 +17,16 @@ public class TagRegexViewFilter extends AbstractRegexViewFilter {
         super(viewTagRegexes);
     }
 
+    /**
+     * Tag regex filter's contructor.
+     *
+     * @param viewTagRegexes View's tags regexes.
+     * @param cacheSize      Tags count whose match results are cached, least recently used ones being evicted first. 0 to disable cache.
+     */
+    public TagRegexViewFilter(@NonNull final String[] viewTagRegexes, final int cacheSize) {
+        super(viewTagRegexes, cacheSize);
+    }
+
     @Override
     protected String getTextToMatch(final View view) {
         if (view.getTag() == null || !(view.getTag() instanceof String)) {
@@ -25,4 +35,10 @@ public class TagRegexViewFilter extends AbstractRegexViewFilter {
         return (String) view.getTag();
     }
 
+    @Override
+    protected String getTextToMatch(final ViewAttributes viewAttributes, final int viewIndex) {
+        final Object viewTag = viewAttributes.getTag(viewIndex);
+        return viewTag instanceof String ? (String) viewTag : null;
+    }
+
 }
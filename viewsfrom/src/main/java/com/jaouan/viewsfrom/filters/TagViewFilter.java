@@ -22,4 +22,9 @@ public class TagViewFilter extends AbstractEqualsViewFilter<String> {
         return view.getTag();
     }
 
+    @Override
+    protected Object getObjectToMatch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return viewAttributes.getTag(viewIndex);
+    }
+
 }
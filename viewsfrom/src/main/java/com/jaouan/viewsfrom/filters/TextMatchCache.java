@@ -0,0 +1,100 @@
+package com.jaouan.viewsfrom.filters;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of text match results. Least recently used texts are evicted first.
+ * Lookups are synchronized, since snapshot views can be filtered from many threads.
+ */
+final class TextMatchCache {
+
+    /**
+     * Match results by text, from least to most recently used.
+     */
+    private final LinkedHashMap<String, Boolean> matchResults;
+
+    /**
+     * Maximum texts count.
+     */
+    private final int maximumSize;
+
+    /**
+     * Lookups count that found a match result.
+     */
+    private long hitsCount;
+
+    /**
+     * Lookups count that did not find any match result.
+     */
+    private long missesCount;
+
+    /**
+     * TextMatchCache's constructor.
+     *
+     * @param maximumSize Maximum texts count. Must be positive.
+     */
+    TextMatchCache(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.matchResults = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldestEntry) {
+                return size() > TextMatchCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Gets match result of a text.
+     *
+     * @param text Text.
+     * @return Match result, or NULL if text is not cached.
+     */
+    synchronized Boolean get(final String text) {
+        final Boolean matchResult = matchResults.get(text);
+        if (matchResult != null) {
+            hitsCount++;
+        } else {
+            missesCount++;
+        }
+        return matchResult;
+    }
+
+    /**
+     * Puts match result of a text, evicting least recently used text if cache is full.
+     *
+     * @param text        Text.
+     * @param matchResult Match result.
+     */
+    synchronized void put(final String text, final boolean matchResult) {
+        matchResults.put(text, matchResult);
+    }
+
+    /**
+     * Gets maximum texts count.
+     *
+     * @return Maximum texts count.
+     */
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets lookups count that found a match result.
+     *
+     * @return Hits count.
+     */
+    synchronized long getHitsCount() {
+        return hitsCount;
+    }
+
+    /**
+     * Gets lookups count that did not find any match result.
+     *
+     * @return Misses count.
+     */
+    synchronized long getMissesCount() {
+        return missesCount;
+    }
+
+}
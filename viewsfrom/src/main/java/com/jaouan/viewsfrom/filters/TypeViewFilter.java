@@ -22,4 +22,9 @@ public class TypeViewFilter extends AbstractEqualsViewFilter<Class<? extends Vie
         return view.getClass();
     }
 
+    @Override
+    protected Object getObjectToMatch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return viewAttributes.getType(viewIndex);
+    }
+
 }
\ No newline at end of file
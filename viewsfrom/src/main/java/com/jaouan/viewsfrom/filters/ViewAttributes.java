@@ -0,0 +1,50 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.view.View;
+
+/**
+ * Attributes of views, captured at some point so they can be read from any thread.
+ */
+public interface ViewAttributes {
+
+    /**
+     * Gets view. It must not be read nor changed outside of main thread.
+     *
+     * @param viewIndex View index.
+     * @return View.
+     */
+    View getView(int viewIndex);
+
+    /**
+     * Gets view's id.
+     *
+     * @param viewIndex View index.
+     * @return View's id.
+     */
+    int getId(int viewIndex);
+
+    /**
+     * Gets view's tag.
+     *
+     * @param viewIndex View index.
+     * @return View's tag.
+     */
+    Object getTag(int viewIndex);
+
+    /**
+     * Gets view's type.
+     *
+     * @param viewIndex View index.
+     * @return View's type.
+     */
+    Class<? extends View> getType(int viewIndex);
+
+    /**
+     * Gets view's visibility.
+     *
+     * @param viewIndex View index.
+     * @return View's visibility.
+     */
+    int getVisibility(int viewIndex);
+
+}
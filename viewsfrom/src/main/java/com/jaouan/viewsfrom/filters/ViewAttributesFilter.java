@@ -0,0 +1,26 @@
+package com.jaouan.viewsfrom.filters;
+
+/**
+ * View filter that can also filter views from their captured attributes, off main thread.
+ */
+public interface ViewAttributesFilter extends ViewFilter {
+
+    /**
+     * Check if view satisfies the filter, from its captured attributes.
+     *
+     * @param viewAttributes View attributes.
+     * @param viewIndex      View index.
+     * @return TRUE if the view satisfies the filter and must be kept in find.
+     */
+    boolean filter(ViewAttributes viewAttributes, int viewIndex);
+
+    /**
+     * Check if view's branch may satisfy the filter, from view's captured attributes.
+     *
+     * @param viewAttributes View attributes.
+     * @param viewIndex      View index.
+     * @return FALSE if neither the view nor any of its descendants can satisfy the filter, so the whole branch can be skipped.
+     */
+    boolean filterBranch(ViewAttributes viewAttributes, int viewIndex);
+
+}
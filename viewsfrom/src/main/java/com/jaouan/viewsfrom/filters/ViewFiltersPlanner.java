@@ -0,0 +1,337 @@
+package com.jaouan.viewsfrom.filters;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * View filters planner, that turns a filters list into an equivalent optimized aggregated filter.
+ * Filters are expected to be side effect free, since they can be merged, removed or reordered.
+ */
+public final class ViewFiltersPlanner {
+
+    /**
+     * Filter costs, from the cheapest and most selective filter to the most expensive one.
+     * Unknown filters, such as custom ones, are evaluated last, in their definition order.
+     */
+    private static final int COST_ID = 0;
+    private static final int COST_TAG = 1;
+    private static final int COST_TYPE = 2;
+    private static final int COST_VISIBILITY = 3;
+    private static final int COST_EXCLUDER = 4;
+    private static final int COST_TAG_REGEX = 5;
+    private static final int COST_UNKNOWN = 6;
+
+    /**
+     * Mergeable filter kinds.
+     */
+    private static final int KIND_NONE = -1;
+    private static final int KIND_VISIBILITY = 0;
+    private static final int KIND_ID = 1;
+    private static final int KIND_TYPE = 2;
+    private static final int KIND_TAG = 3;
+    private static final int KIND_EXCLUDER = 4;
+    private static final int KIND_BRANCH_EXCLUDER = 5;
+    private static final int KIND_COUNT = 6;
+
+    /**
+     * Comparator of filters costs.
+     */
+    private static final Comparator<ViewFilter> COST_COMPARATOR = new Comparator<ViewFilter>() {
+        @Override
+        public int compare(final ViewFilter viewFilter1, final ViewFilter viewFilter2) {
+            return estimateCost(viewFilter1) - estimateCost(viewFilter2);
+        }
+    };
+
+    /**
+     * Private constructor to disallow instantiation.
+     */
+    private ViewFiltersPlanner() {
+    }
+
+    /**
+     * Plans view filters : aggregated filters are flattened, double complements are folded,
+     * filters of the same kind are merged and remaining filters are ordered by estimated cost.
+     *
+     * @param viewFilters View filters.
+     * @return Planned view filter.
+     */
+    public static AggregatedViewFilters plan(@NonNull final List<ViewFilter> viewFilters) {
+        return plan(viewFilters, 0);
+    }
+
+    /**
+     * Plans view filters, as {@see #plan(List)} does. Planned filters can then be reordered at runtime,
+     * from pass rates and costs sampled over their first evaluations.
+     *
+     * @param viewFilters  View filters.
+     * @param samplesCount Evaluations count to sample before reordering filters. 0 to never reorder them.
+     * @return Planned view filter.
+     */
+    public static AggregatedViewFilters plan(@NonNull final List<ViewFilter> viewFilters, final int samplesCount) {
+        // - Flatten filters.
+        final List<ViewFilter> flattenedViewFilters = new ArrayList<>(viewFilters.size());
+        for (final ViewFilter viewFilter : viewFilters) {
+            flatten(viewFilter, flattenedViewFilters);
+        }
+
+        // - Merge filters of the same kind.
+        final List<ViewFilter> plannedViewFilters = new ArrayList<>(flattenedViewFilters.size());
+        final int[] mergedViewFilterIndexes = new int[KIND_COUNT * 2];
+        Arrays.fill(mergedViewFilterIndexes, -1);
+        for (final ViewFilter viewFilter : flattenedViewFilters) {
+            final int kind = getMergeableKind(viewFilter);
+            if (kind == KIND_NONE) {
+                plannedViewFilters.add(viewFilter);
+            } else if (mergedViewFilterIndexes[kind] < 0) {
+                mergedViewFilterIndexes[kind] = plannedViewFilters.size();
+                plannedViewFilters.add(viewFilter);
+            } else {
+                final int mergedViewFilterIndex = mergedViewFilterIndexes[kind];
+                plannedViewFilters.set(mergedViewFilterIndex, merge(plannedViewFilters.get(mergedViewFilterIndex), viewFilter));
+            }
+        }
+
+        // - Order filters by cost. (sort is stable)
+        Collections.sort(plannedViewFilters, COST_COMPARATOR);
+
+        return new AggregatedViewFilters(plannedViewFilters, samplesCount);
+    }
+
+    /**
+     * Gets the filter a views index can look candidates up with, from a planned view filter.
+     * Candidates are views satisfying this filter, which is one of the aggregated filters.
+     *
+     * @param plannedViewFilter Planned view filter.
+     * @return The most selective id, tag or type filter, or NULL if there is none.
+     */
+    public static ViewFilter getIndexableViewFilter(@NonNull final AggregatedViewFilters plannedViewFilter) {
+        // Planned filters are already ordered from the most selective one.
+        for (final ViewFilter viewFilter : plannedViewFilter.getViewFilters()) {
+            final Class<?> viewFilterClass = viewFilter.getClass();
+            if (viewFilterClass == IdViewFilter.class || viewFilterClass == TagViewFilter.class || viewFilterClass == TypeViewFilter.class) {
+                return viewFilter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Flattens a filter : aggregated filters are unwrapped and double complements are folded.
+     *
+     * @param viewFilter           View filter.
+     * @param flattenedViewFilters Flattened view filters where filter will be added.
+     */
+    private static void flatten(final ViewFilter viewFilter, final List<ViewFilter> flattenedViewFilters) {
+        // - Fold double complements.
+        ViewFilter foldedViewFilter = viewFilter;
+        while (foldedViewFilter.getClass() == ComplementedViewFilter.class) {
+            final ViewFilter complementedViewFilter = ((ComplementedViewFilter) foldedViewFilter).getViewFilter();
+            if (complementedViewFilter.getClass() != ComplementedViewFilter.class) {
+                break;
+            }
+            foldedViewFilter = ((ComplementedViewFilter) complementedViewFilter).getViewFilter();
+        }
+
+        // - Unwrap aggregated filters.
+        if (foldedViewFilter.getClass() == AggregatedViewFilters.class) {
+            for (final ViewFilter aggregatedViewFilter : ((AggregatedViewFilters) foldedViewFilter).getViewFilters()) {
+                flatten(aggregatedViewFilter, flattenedViewFilters);
+            }
+        } else {
+            flattenedViewFilters.add(foldedViewFilter);
+        }
+    }
+
+    /**
+     * Gets mergeable kind of a filter. Complemented filters have their own kinds.
+     *
+     * @param viewFilter View filter.
+     * @return Mergeable kind, or KIND_NONE if filter can't be merged.
+     */
+    private static int getMergeableKind(final ViewFilter viewFilter) {
+        if (viewFilter.getClass() == ComplementedViewFilter.class) {
+            final int kind = getMergeableKind(((ComplementedViewFilter) viewFilter).getViewFilter());
+            // Complemented excluders are not merged.
+            return kind == KIND_NONE || kind == KIND_EXCLUDER || kind == KIND_BRANCH_EXCLUDER ? KIND_NONE : KIND_COUNT + kind;
+        }
+        // Only exact built-in classes are merged, since subclasses may match differently.
+        final Class<?> viewFilterClass = viewFilter.getClass();
+        if (viewFilterClass == VisibilityViewFilter.class || viewFilterClass == ShownViewFilter.class) {
+            return KIND_VISIBILITY;
+        } else if (viewFilterClass == IdViewFilter.class) {
+            return KIND_ID;
+        } else if (viewFilterClass == TypeViewFilter.class) {
+            return KIND_TYPE;
+        } else if (viewFilterClass == TagViewFilter.class) {
+            return KIND_TAG;
+        } else if (viewFilterClass == ExcluderViewFilter.class) {
+            return KIND_EXCLUDER;
+        } else if (viewFilterClass == BranchExcluderViewFilter.class) {
+            return KIND_BRANCH_EXCLUDER;
+        }
+        return KIND_NONE;
+    }
+
+    /**
+     * Merges two filters of the same kind.
+     * Filters are satisfied together when the view matches both of their values (intersection),
+     * complemented filters and excluders are satisfied together when the view matches none of their values (union).
+     *
+     * @param viewFilter1 First view filter.
+     * @param viewFilter2 Second view filter.
+     * @return Merged view filter.
+     */
+    private static ViewFilter merge(final ViewFilter viewFilter1, final ViewFilter viewFilter2) {
+        if (viewFilter1 instanceof ComplementedViewFilter) {
+            return new ComplementedViewFilter(mergeValues(((ComplementedViewFilter) viewFilter1).getViewFilter(), ((ComplementedViewFilter) viewFilter2).getViewFilter(), false));
+        } else if (viewFilter1 instanceof ExcluderViewFilter) {
+            final View[] views = union(((ExcluderViewFilter) viewFilter1).getViews(), ((ExcluderViewFilter) viewFilter2).getViews());
+            return viewFilter1 instanceof BranchExcluderViewFilter ? new BranchExcluderViewFilter(views) : new ExcluderViewFilter(views);
+        }
+        return mergeValues(viewFilter1, viewFilter2, true);
+    }
+
+    /**
+     * Merges values of two filters of the same kind.
+     *
+     * @param viewFilter1 First view filter.
+     * @param viewFilter2 Second view filter.
+     * @param intersect   TRUE to intersect values, FALSE to unite them.
+     * @return Merged view filter.
+     */
+    private static ViewFilter mergeValues(final ViewFilter viewFilter1, final ViewFilter viewFilter2, final boolean intersect) {
+        if (viewFilter1 instanceof VisibilityViewFilter) {
+            final VisibilityViewFilter visibilityViewFilter1 = (VisibilityViewFilter) viewFilter1;
+            final VisibilityViewFilter visibilityViewFilter2 = (VisibilityViewFilter) viewFilter2;
+            final int[] viewVisibilities1 = visibilityViewFilter1.getViewVisibilities();
+            final int[] viewVisibilities2 = visibilityViewFilter2.getViewVisibilities();
+            if (!intersect) {
+                return new VisibilityViewFilter(union(viewVisibilities1, viewVisibilities2));
+            }
+            // Hidden branches are still skipped if one of intersected filters skips them and visible views remain wanted.
+            final int[] viewVisibilities = intersection(viewVisibilities1, viewVisibilities2);
+            return (visibilityViewFilter1 instanceof ShownViewFilter || visibilityViewFilter2 instanceof ShownViewFilter) && viewVisibilities.length > 0
+                    ? new ShownViewFilter()
+                    : new VisibilityViewFilter(viewVisibilities);
+        } else if (viewFilter1 instanceof IdViewFilter) {
+            final int[] viewIdentifiers1 = ((IdViewFilter) viewFilter1).getViewIdentifiers();
+            final int[] viewIdentifiers2 = ((IdViewFilter) viewFilter2).getViewIdentifiers();
+            return new IdViewFilter(intersect ? intersection(viewIdentifiers1, viewIdentifiers2) : union(viewIdentifiers1, viewIdentifiers2));
+        } else if (viewFilter1 instanceof TypeViewFilter) {
+            final Class<? extends View>[] viewTypes1 = ((TypeViewFilter) viewFilter1).getObjects();
+            final Class<? extends View>[] viewTypes2 = ((TypeViewFilter) viewFilter2).getObjects();
+            return new TypeViewFilter(intersect ? intersection(viewTypes1, viewTypes2) : union(viewTypes1, viewTypes2));
+        }
+        final String[] viewTags1 = ((TagViewFilter) viewFilter1).getObjects();
+        final String[] viewTags2 = ((TagViewFilter) viewFilter2).getObjects();
+        return new TagViewFilter(intersect ? intersection(viewTags1, viewTags2) : union(viewTags1, viewTags2));
+    }
+
+    /**
+     * Estimates cost of a filter.
+     *
+     * @param viewFilter View filter.
+     * @return Estimated cost.
+     */
+    private static int estimateCost(final ViewFilter viewFilter) {
+        if (viewFilter instanceof ComplementedViewFilter) {
+            // Complemented filters reject few views, so they are evaluated after selective ones.
+            return Math.max(COST_EXCLUDER, estimateCost(((ComplementedViewFilter) viewFilter).getViewFilter()));
+        } else if (viewFilter instanceof IdViewFilter) {
+            return COST_ID;
+        } else if (viewFilter instanceof TagViewFilter) {
+            return COST_TAG;
+        } else if (viewFilter instanceof TypeViewFilter || viewFilter instanceof AssignableTypeViewFilter) {
+            return COST_TYPE;
+        } else if (viewFilter instanceof VisibilityViewFilter) {
+            return COST_VISIBILITY;
+        } else if (viewFilter instanceof ExcluderViewFilter) {
+            return COST_EXCLUDER;
+        } else if (viewFilter instanceof TagRegexViewFilter) {
+            return COST_TAG_REGEX;
+        }
+        return COST_UNKNOWN;
+    }
+
+    /**
+     * Intersects two arrays.
+     *
+     * @param array1 First array.
+     * @param array2 Second array.
+     * @return Values of first array contained in second array.
+     */
+    private static int[] intersection(final int[] array1, final int[] array2) {
+        final int[] intersection = new int[array1.length];
+        int intersectionLength = 0;
+        for (final int value : array1) {
+            if (FilterHelper.arrayContains(array2, value)) {
+                intersection[intersectionLength++] = value;
+            }
+        }
+        return Arrays.copyOf(intersection, intersectionLength);
+    }
+
+    /**
+     * Unites two arrays.
+     *
+     * @param array1 First array.
+     * @param array2 Second array.
+     * @return Values of first array, followed by values of second array not contained in first array.
+     */
+    private static int[] union(final int[] array1, final int[] array2) {
+        final int[] union = Arrays.copyOf(array1, array1.length + array2.length);
+        int unionLength = array1.length;
+        for (final int value : array2) {
+            if (!FilterHelper.arrayContains(array1, value)) {
+                union[unionLength++] = value;
+            }
+        }
+        return Arrays.copyOf(union, unionLength);
+    }
+
+    /**
+     * Intersects two arrays.
+     *
+     * @param array1        First array.
+     * @param array2        Second array.
+     * @param <TypeOfValue> Type of value.
+     * @return Values of first array contained in second array.
+     */
+    private static <TypeOfValue> TypeOfValue[] intersection(final TypeOfValue[] array1, final TypeOfValue[] array2) {
+        final TypeOfValue[] intersection = Arrays.copyOf(array1, array1.length);
+        int intersectionLength = 0;
+        for (final TypeOfValue value : array1) {
+            if (FilterHelper.arrayContains(array2, value)) {
+                intersection[intersectionLength++] = value;
+            }
+        }
+        return Arrays.copyOf(intersection, intersectionLength);
+    }
+
+    /**
+     * Unites two arrays.
+     *
+     * @param array1        First array.
+     * @param array2        Second array.
+     * @param <TypeOfValue> Type of value.
+     * @return Values of first array, followed by values of second array not contained in first array.
+     */
+    private static <TypeOfValue> TypeOfValue[] union(final TypeOfValue[] array1, final TypeOfValue[] array2) {
+        final TypeOfValue[] union = Arrays.copyOf(array1, array1.length + array2.length);
+        int unionLength = array1.length;
+        for (final TypeOfValue value : array2) {
+            if (!FilterHelper.arrayContains(array1, value)) {
+                union[unionLength++] = value;
+            }
+        }
+        return Arrays.copyOf(union, unionLength);
+    }
+
+}
@@ -6,13 +6,18 @@ import android.view.View;
 /**
  * Visibility filter.
  */
-public class VisibilityViewFilter implements ViewFilter {
+public class VisibilityViewFilter implements ViewAttributesFilter {
 
     /**
      * View's visibilities.
      */
     private final int[] viewVisibilities;
 
+    /**
+     * View's visibilities hash set. NULL if visibilities are few enough to be scanned.
+     */
+    private final IntHashSet viewVisibilitySet;
+
     /**
      * Visibility filter's contructor.
      *
@@ -20,11 +25,33 @@ public class VisibilityViewFilter implements ViewFilter {
      */
     public VisibilityViewFilter(@NonNull final int[] viewVisibilities) {
         this.viewVisibilities = viewVisibilities;
+        this.viewVisibilitySet = FilterHelper.toHashSetIfLarge(viewVisibilities);
     }
 
     @Override
     public boolean filter(final View view) {
-        return FilterHelper.arrayContains(viewVisibilities, view.getVisibility());
+        final int viewVisibility = view.getVisibility();
+        return viewVisibilitySet != null ? viewVisibilitySet.contains(viewVisibility) : FilterHelper.arrayContains(viewVisibilities, viewVisibility);
+    }
+
+    @Override
+    public boolean filter(final ViewAttributes viewAttributes, final int viewIndex) {
+        final int viewVisibility = viewAttributes.getVisibility(viewIndex);
+        return viewVisibilitySet != null ? viewVisibilitySet.contains(viewVisibility) : FilterHelper.arrayContains(viewVisibilities, viewVisibility);
+    }
+
+    @Override
+    public boolean filterBranch(final ViewAttributes viewAttributes, final int viewIndex) {
+        return true;
+    }
+
+    /**
+     * Gets view's visibilities.
+     *
+     * @return View's visibilities.
+     */
+    int[] getViewVisibilities() {
+        return viewVisibilities;
     }
 
 }